@@ -1,20 +1,33 @@
 package de.tecca.endOverworld;
 
 import de.tecca.endOverworld.commands.AncientSiteCommand;
+import de.tecca.endOverworld.commands.EndOverworldCommand;
+import de.tecca.endOverworld.config.Settings;
 import de.tecca.endOverworld.managers.*;
+import de.tecca.endOverworld.managers.FeatureRegistry.Feature;
 import de.tecca.endOverworld.mechanics.*;
 import de.tecca.endOverworld.trading.TradingManager;
 import de.tecca.endOverworld.world.EndPostProcessor;
 import de.tecca.endOverworld.world.StructureManager;
-import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 
 public class EndOverworld extends JavaPlugin {
 
     // Managers
+    private FeatureRegistry featureRegistry;
     private SpawnManager spawnManager;
     private PortalManager portalManager;
     private WorldManager worldManager;
@@ -23,6 +36,7 @@ public class EndOverworld extends JavaPlugin {
     private TradingManager tradingManager;
     private StructureManager structureManager;
     private AncientEndManager ancientEndManager;
+    private ParticleManager particleManager;
 
     // Mechanics
     private BlockMechanics blockMechanics;
@@ -32,13 +46,25 @@ public class EndOverworld extends JavaPlugin {
     // Post Processing
     private EndPostProcessor postProcessor;
 
-    // Configuration
-    private FileConfiguration traderConfig;
+    // Configuration snapshot, replaced as a whole on reload
+    private volatile Settings settings;
+    private final AtomicBoolean reloading = new AtomicBoolean();
 
     @Override
     public void onEnable() {
-        // Load configurations
-        loadConfigurations();
+        // Parse and validate configurations in the background
+        CompletableFuture<Settings> pendingSettings = loadConfigurations();
+
+        // Worlds are Bukkit-bound and need no settings, so they are created while the parse runs
+        worldManager = new WorldManager(this);
+
+        try {
+            settings = pendingSettings.join();
+        } catch (CompletionException e) {
+            getLogger().log(Level.SEVERE, "Failed to load configuration, disabling", e.getCause());
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
 
         // Initialize managers
         initializeManagers();
@@ -67,13 +93,25 @@ public class EndOverworld extends JavaPlugin {
     public void onDisable() {
         // Cleanup all managers
         if (tradingManager != null) {
-            tradingManager.cleanup();
+            tradingManager.shutdown();
+        }
+
+        if (structureManager != null) {
+            structureManager.shutdown();
+        }
+
+        if (mobBehavior != null) {
+            mobBehavior.shutdown();
         }
 
         if (ancientEndManager != null) {
             ancientEndManager.cleanup();
         }
 
+        if (particleManager != null) {
+            particleManager.cleanup();
+        }
+
         if (worldManager != null) {
             worldManager.cleanup();
         }
@@ -81,24 +119,105 @@ public class EndOverworld extends JavaPlugin {
         getLogger().info("EndOverworld plugin disabled!");
     }
 
-    private void loadConfigurations() {
+    private CompletableFuture<Settings> loadConfigurations() {
         // Save default configs
         saveDefaultConfig();
 
-        // Load trader config
+        // Save default trader config
         File traderConfigFile = new File(getDataFolder(), "trader_config.yml");
         if (!traderConfigFile.exists()) {
             saveResource("trader_config.yml", false);
         }
-        traderConfig = YamlConfiguration.loadConfiguration(traderConfigFile);
+
+        return CompletableFuture.supplyAsync(() -> {
+            Settings loaded = readSettings();
+            reportValidation(loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Reads both configuration files into a new settings snapshot. Safe to call off the main thread.
+     */
+    private Settings readSettings() {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(new File(getDataFolder(), "config.yml"));
+        InputStream defaults = getResource("config.yml");
+        if (defaults != null) {
+            config.setDefaults(YamlConfiguration.loadConfiguration(
+                    new InputStreamReader(defaults, StandardCharsets.UTF_8)));
+        }
+        YamlConfiguration traders = YamlConfiguration.loadConfiguration(new File(getDataFolder(), "trader_config.yml"));
+        return Settings.load(config, traders, getLogger());
+    }
+
+    /**
+     * Logs the trade entries the catalog parse rejected
+     */
+    private void reportValidation(Settings loaded) {
+        List<String> invalid = loaded.getCatalog().getInvalidEntries();
+        for (String entry : invalid) {
+            getLogger().warning(entry);
+        }
+        getLogger().info("Validated " + (loaded.getCatalog().size() + invalid.size()) + " trade offers (" +
+                invalid.size() + " invalid)");
+    }
+
+    /**
+     * Re-reads both configuration files off the main thread, then swaps in the new settings snapshot
+     * and lets every manager apply it on the next tick
+     */
+    public void reloadSettings(CommandSender sender) {
+        if (!reloading.compareAndSet(false, true)) {
+            sender.sendMessage("§cA reload is already running.");
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            Settings loaded;
+            try {
+                loaded = readSettings();
+                reportValidation(loaded);
+            } catch (Exception e) {
+                getLogger().log(Level.SEVERE, "Failed to reload configuration", e);
+                reloading.set(false);
+                Bukkit.getScheduler().runTask(this, () -> sender.sendMessage("§cReload failed, see console."));
+                return;
+            }
+
+            Bukkit.getScheduler().runTask(this, () -> {
+                try {
+                    if (isEnabled()) applySettings(loaded);
+                    sender.sendMessage("§aEndOverworld configuration reloaded.");
+                } finally {
+                    reloading.set(false);
+                }
+            });
+        });
+    }
+
+    private void applySettings(Settings loaded) {
+        settings = loaded;
+
+        featureRegistry.checkFlags(loaded);
+        worldManager.reloadSettings();
+        particleManager.reloadSettings();
+        bedManager.reloadSettings();
+        structureManager.reloadSettings();
+        recipeManager.reloadRecipes();
+        tradingManager.reloadSettings();
+        tradingManager.reloadCatalog();
+
+        getLogger().info("Configuration reloaded");
     }
 
     private void initializeManagers() {
-        worldManager = new WorldManager(this);
+        featureRegistry = new FeatureRegistry(this);
+        worldManager.startCompatibilityDetection();
         spawnManager = new SpawnManager(this, worldManager);
         portalManager = new PortalManager(this, worldManager);
         bedManager = new BedManager(this);
         recipeManager = new RecipeManager(this);
+        particleManager = new ParticleManager(this);
         tradingManager = new TradingManager(this);
         structureManager = new StructureManager(this);
         ancientEndManager = new AncientEndManager(this);
@@ -112,22 +231,47 @@ public class EndOverworld extends JavaPlugin {
 
     private void initializePostProcessor() {
         postProcessor = new EndPostProcessor(this);
-        getServer().getPluginManager().registerEvents(postProcessor, this);
-        getLogger().info("End City post-processor initialized - will only affect End Cities");
+        if (featureRegistry.register(Feature.POST_PROCESSING, postProcessor)) {
+            getLogger().info("End City post-processor initialized - will only affect End Cities");
+        }
     }
 
     private void registerEventListeners() {
-        getServer().getPluginManager().registerEvents(spawnManager, this);
-        getServer().getPluginManager().registerEvents(portalManager, this);
-        getServer().getPluginManager().registerEvents(bedManager, this);
-        getServer().getPluginManager().registerEvents(blockMechanics, this);
-        getServer().getPluginManager().registerEvents(foodMechanics, this);
-        getServer().getPluginManager().registerEvents(mobBehavior, this);
-        getServer().getPluginManager().registerEvents(structureManager, this);
-        getServer().getPluginManager().registerEvents(ancientEndManager, this);
+        // Core listeners, needed by every feature
+        getServer().getPluginManager().registerEvents(worldManager, this);
+        getServer().getPluginManager().registerEvents(particleManager, this);
+
+        featureRegistry.register(Feature.NEW_PLAYER_SPAWN, spawnManager);
+        featureRegistry.register(Feature.PORTALS, portalManager);
+        featureRegistry.register(Feature.BEDS, bedManager);
+        featureRegistry.register(Feature.BLOCK_MECHANICS, blockMechanics);
+        featureRegistry.register(Feature.ENHANCED_FOOD, foodMechanics);
+
+        // Timers only run for enabled features, and plugin entities in chunks that loaded before
+        // our listeners existed are picked up
+        if (featureRegistry.register(Feature.MOB_BEHAVIOR, mobBehavior)) {
+            mobBehavior.start();
+            mobBehavior.indexLoadedGuards();
+        }
+        if (featureRegistry.register(Feature.ANCIENT_SITES, ancientEndManager)) {
+            ancientEndManager.start();
+        }
+        if (featureRegistry.register(Feature.TRADING_ENDERMEN, tradingManager)) {
+            tradingManager.start();
+            tradingManager.attachLoadedTraders();
+        }
+        if (featureRegistry.register(Feature.END_CITY_VILLAGERS, structureManager)) {
+            structureManager.start();
+            structureManager.attachLoadedVillagers();
+        }
     }
 
     private void registerCommands() {
+        // Register admin command
+        EndOverworldCommand endOverworldCommand = new EndOverworldCommand(this);
+        getCommand("endoverworld").setExecutor(endOverworldCommand);
+        getCommand("endoverworld").setTabCompleter(endOverworldCommand);
+
         // Register Ancient Site command
         AncientSiteCommand ancientSiteCommand = new AncientSiteCommand(this);
         getCommand("ancientsite").setExecutor(ancientSiteCommand);
@@ -135,20 +279,15 @@ public class EndOverworld extends JavaPlugin {
     }
 
     private void validateConfigurations() {
-        tradingManager.validateTradeOffers();
+        // Trade offers were validated with the settings parse
         recipeManager.registerAllRecipes();
 
         // Log feature status
-        getLogger().info("=== EndOverworld Features ===");
-        getLogger().info("End City Villagers: " + (structureManager != null ? "ENABLED" : "DISABLED"));
-        getLogger().info("Trading Endermen: " + (tradingManager != null ? "ENABLED" : "DISABLED"));
-        getLogger().info("Block Mechanics: " + (blockMechanics != null ? "ENABLED" : "DISABLED"));
-        getLogger().info("Enhanced Food: " + (foodMechanics != null ? "ENABLED" : "DISABLED"));
-        getLogger().info("Ancient End Sites: " + (ancientEndManager != null ? "ENABLED" : "DISABLED"));
-        getLogger().info("End City Post-Processing: " + (postProcessor != null ? "ENABLED" : "DISABLED"));
+        featureRegistry.logStatus();
     }
 
     // Getters for managers (for cross-manager communication)
+    public FeatureRegistry getFeatureRegistry() { return featureRegistry; }
     public SpawnManager getSpawnManager() { return spawnManager; }
     public PortalManager getPortalManager() { return portalManager; }
     public WorldManager getWorldManager() { return worldManager; }
@@ -157,6 +296,7 @@ public class EndOverworld extends JavaPlugin {
     public TradingManager getTradingManager() { return tradingManager; }
     public StructureManager getStructureManager() { return structureManager; }
     public AncientEndManager getAncientEndManager() { return ancientEndManager; }
+    public ParticleManager getParticleManager() { return particleManager; }
 
     public BlockMechanics getBlockMechanics() { return blockMechanics; }
     public FoodMechanics getFoodMechanics() { return foodMechanics; }
@@ -164,5 +304,5 @@ public class EndOverworld extends JavaPlugin {
 
     public EndPostProcessor getPostProcessor() { return postProcessor; }
 
-    public FileConfiguration getTraderConfig() { return traderConfig; }
+    public Settings getSettings() { return settings; }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package de.tecca.endOverworld.commands;
+
+import de.tecca.endOverworld.EndOverworld;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin command for the plugin itself
+ * Usage: /endoverworld reload
+ */
+public class EndOverworldCommand implements CommandExecutor, TabCompleter {
+
+    private final EndOverworld plugin;
+
+    public EndOverworldCommand(EndOverworld plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("endoverworld.admin")) {
+            sender.sendMessage("§c❌ You don't have permission to use this command!");
+            return true;
+        }
+
+        if (args.length == 1 && args[0].equalsIgnoreCase("reload")) {
+            sender.sendMessage("§7Reloading EndOverworld configuration...");
+            plugin.reloadSettings(sender);
+            return true;
+        }
+
+        sender.sendMessage("§6Usage: §e/" + label + " reload §7- Reload config.yml and trader_config.yml");
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1 && "reload".startsWith(args[0].toLowerCase())) {
+            completions.add("reload");
+        }
+
+        return completions;
+    }
+}
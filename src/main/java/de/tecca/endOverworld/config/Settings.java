@@ -0,0 +1,257 @@
+package de.tecca.endOverworld.config;
+
+import de.tecca.endOverworld.managers.FeatureRegistry.Feature;
+import de.tecca.endOverworld.managers.RecipeDefinition;
+import de.tecca.endOverworld.trading.PaymentEngine;
+import de.tecca.endOverworld.trading.TradeCatalog;
+import de.tecca.endOverworld.trading.TraderSettings;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Typed snapshot of config.yml and trader_config.yml, built once per load with all lists resolved
+ * (names to arrays, materials and entity types to ordinal tables). Immutable, so it can be built off the
+ * main thread and published by swapping a single volatile reference.
+ */
+public final class Settings {
+
+    // Used when config.yml has no villagers.hostile-mobs list
+    private static final List<String> DEFAULT_HOSTILE_MOBS = List.of(
+            "ZOMBIE", "HUSK", "DROWNED", "ZOMBIE_VILLAGER", "ZOMBIFIED_PIGLIN", "SKELETON", "STRAY",
+            "WITHER_SKELETON", "CREEPER", "SPIDER", "CAVE_SPIDER", "WITCH", "PILLAGER", "VINDICATOR",
+            "EVOKER", "VEX", "RAVAGER", "PHANTOM", "BLAZE", "GHAST", "WITHER", "SLIME", "MAGMA_CUBE",
+            "ENDERMITE", "SILVERFISH", "GUARDIAN", "ELDER_GUARDIAN", "SHULKER", "PIGLIN", "PIGLIN_BRUTE",
+            "HOGLIN", "ZOGLIN"
+    );
+
+    private final Set<Feature> features;
+    private final Villagers villagers;
+    private final Beds beds;
+    private final Foods foods;
+    private final Compatibility compatibility;
+    private final Map<String, RecipeDefinition> recipes;
+    private final TraderSettings traders;
+    private final TradeCatalog catalog;
+    private final PaymentEngine paymentEngine;
+
+    private final int processingDelay;
+    private final double particleViewDistance;
+    private final boolean logVillagerCreation;
+    private final boolean logStructureDetection;
+
+    private Settings(FileConfiguration config, FileConfiguration traderConfig, Logger logger) {
+        Set<Feature> enabled = EnumSet.noneOf(Feature.class);
+        for (Feature feature : Feature.values()) {
+            if (config.getBoolean(feature.getConfigKey(), true)) {
+                enabled.add(feature);
+            }
+        }
+        this.features = Collections.unmodifiableSet(enabled);
+
+        this.villagers = new Villagers(config, logger);
+        this.beds = new Beds(config);
+        this.foods = new Foods(config, logger);
+        this.compatibility = new Compatibility(config);
+        this.recipes = RecipeDefinition.parseAll(config.getConfigurationSection("recipes"), logger);
+        this.traders = TraderSettings.fromConfig(traderConfig);
+        this.catalog = TradeCatalog.parse(traderConfig);
+        this.paymentEngine = PaymentEngine.fromConfig(traderConfig, logger);
+
+        this.processingDelay = Math.max(1, config.getInt("structures.processing-delay", 20));
+        this.particleViewDistance = config.getDouble("performance.particle-view-distance", 48.0);
+        this.logVillagerCreation = config.getBoolean("debug.log-villager-creation", true);
+        this.logStructureDetection = config.getBoolean("debug.log-structure-detection", true);
+    }
+
+    /**
+     * Builds a snapshot. Touches no world state, so it is safe to call asynchronously.
+     */
+    public static Settings load(FileConfiguration config, FileConfiguration traderConfig, Logger logger) {
+        return new Settings(config, traderConfig, logger);
+    }
+
+    public boolean isFeatureEnabled(Feature feature) { return features.contains(feature); }
+    public Set<Feature> getFeatures() { return features; }
+    public Villagers getVillagers() { return villagers; }
+    public Beds getBeds() { return beds; }
+    public Foods getFoods() { return foods; }
+    public Compatibility getCompatibility() { return compatibility; }
+    public Map<String, RecipeDefinition> getRecipes() { return recipes; }
+    public TraderSettings getTraders() { return traders; }
+    public TradeCatalog getCatalog() { return catalog; }
+    public PaymentEngine getPaymentEngine() { return paymentEngine; }
+    public int getProcessingDelay() { return processingDelay; }
+    public double getParticleViewDistance() { return particleViewDistance; }
+    public boolean isLogVillagerCreation() { return logVillagerCreation; }
+    public boolean isLogStructureDetection() { return logStructureDetection; }
+
+    /**
+     * The villagers section
+     */
+    public static final class Villagers {
+        private final int minVillagers;
+        private final int maxVillagers;
+        private final double maxWanderDistance;
+        private final long returnCheckInterval;
+        private final int returnChecksPerTick;
+        private final Map<String, String[]> namesByProfession;
+        private final String[] genericNames;
+
+        // Indexed by EntityType ordinal
+        private final boolean[] hostileMobs;
+        private final Set<EntityType> hostileTypes;
+
+        private Villagers(FileConfiguration config, Logger logger) {
+            this.minVillagers = Math.max(0, config.getInt("villagers.min-villagers", 1));
+            this.maxVillagers = Math.max(minVillagers, config.getInt("villagers.max-villagers", 2));
+            this.maxWanderDistance = config.getDouble("villagers.max-wander-distance", 15.0);
+            this.returnCheckInterval = Math.max(1, config.getLong("villagers.return-check-interval", 6000L));
+            this.returnChecksPerTick = Math.max(1, config.getInt("villagers.return-checks-per-tick", 8));
+
+            Map<String, String[]> names = new HashMap<>();
+            ConfigurationSection nameSection = config.getConfigurationSection("villagers.names");
+            if (nameSection != null) {
+                for (String profession : nameSection.getKeys(false)) {
+                    List<String> list = nameSection.getStringList(profession);
+                    if (!list.isEmpty()) {
+                        names.put(profession.toLowerCase(), list.toArray(new String[0]));
+                    }
+                }
+            }
+            this.genericNames = names.remove("generic");
+            this.namesByProfession = Collections.unmodifiableMap(names);
+
+            List<String> hostile = config.isList("villagers.hostile-mobs")
+                    ? config.getStringList("villagers.hostile-mobs")
+                    : DEFAULT_HOSTILE_MOBS;
+            this.hostileMobs = new boolean[EntityType.values().length];
+            Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+            for (String name : hostile) {
+                try {
+                    EntityType type = EntityType.valueOf(name.toUpperCase());
+                    hostileMobs[type.ordinal()] = true;
+                    types.add(type);
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Unknown entity type in villagers.hostile-mobs: " + name);
+                }
+            }
+            this.hostileTypes = Collections.unmodifiableSet(types);
+        }
+
+        public int getMinVillagers() { return minVillagers; }
+        public int getMaxVillagers() { return maxVillagers; }
+        public double getMaxWanderDistance() { return maxWanderDistance; }
+        public long getReturnCheckInterval() { return returnCheckInterval; }
+        public int getReturnChecksPerTick() { return returnChecksPerTick; }
+
+        /**
+         * Gets the names for a profession (lowercase key), falling back to the generic names, or null if neither exists
+         */
+        public String[] getNames(String profession) {
+            String[] names = namesByProfession.get(profession);
+            return names != null ? names : genericNames;
+        }
+
+        public boolean isHostile(EntityType type) { return hostileMobs[type.ordinal()]; }
+        public Set<EntityType> getHostileMobs() { return hostileTypes; }
+    }
+
+    /**
+     * The beds section, all times in ticks
+     */
+    public static final class Beds {
+        private final int healingInterval;
+        private final int foodInterval;
+        private final int maxHealingTime;
+        private final double healingAmount;
+        private final int foodAmount;
+
+        private Beds(FileConfiguration config) {
+            this.healingInterval = Math.max(1, config.getInt("beds.healing-interval", 40));
+            this.foodInterval = Math.max(1, config.getInt("beds.food-interval", 60));
+            this.maxHealingTime = Math.max(1, config.getInt("beds.max-healing-time", 200));
+            this.healingAmount = config.getDouble("beds.healing-amount", 2.0);
+            this.foodAmount = config.getInt("beds.food-amount", 1);
+        }
+
+        public int getHealingInterval() { return healingInterval; }
+        public int getFoodInterval() { return foodInterval; }
+        public int getMaxHealingTime() { return maxHealingTime; }
+        public double getHealingAmount() { return healingAmount; }
+        public int getFoodAmount() { return foodAmount; }
+    }
+
+    /**
+     * The compatibility section
+     */
+    public static final class Compatibility {
+        private final boolean nullscapeSupport;
+        private final boolean customTerrainSupport;
+        private final boolean checkCustomMaterials;
+        private final boolean protectCustomTerrain;
+
+        private Compatibility(FileConfiguration config) {
+            this.nullscapeSupport = config.getBoolean("compatibility.nullscape-support", true);
+            this.customTerrainSupport = config.getBoolean("compatibility.custom-terrain-support", true);
+            this.checkCustomMaterials = config.getBoolean("compatibility.check-custom-materials", true);
+            this.protectCustomTerrain = config.getBoolean("compatibility.protect-custom-terrain", false);
+        }
+
+        public boolean isNullscapeSupport() { return nullscapeSupport; }
+        public boolean isCustomTerrainSupport() { return customTerrainSupport; }
+        public boolean isCheckCustomMaterials() { return checkCustomMaterials; }
+        public boolean isProtectCustomTerrain() { return protectCustomTerrain; }
+    }
+
+    /**
+     * The food.bonuses table, indexed by Material ordinal
+     */
+    public static final class Foods {
+        private final int[] bonusHunger;
+        private final float[] bonusSaturation;
+        private final Material[] enhancedFoods;
+
+        private Foods(FileConfiguration config, Logger logger) {
+            this.bonusHunger = new int[Material.values().length];
+            this.bonusSaturation = new float[bonusHunger.length];
+            List<Material> foods = new ArrayList<>();
+
+            ConfigurationSection section = config.getConfigurationSection("food.bonuses");
+            if (section != null) {
+                for (String key : section.getKeys(false)) {
+                    Material material = Material.matchMaterial(key);
+                    if (material == null || !material.isEdible()) {
+                        logger.warning("Unknown food in food.bonuses: " + key);
+                        continue;
+                    }
+                    bonusHunger[material.ordinal()] = Math.max(0, section.getInt(key + ".hunger", 0));
+                    bonusSaturation[material.ordinal()] = (float) Math.max(0.0, section.getDouble(key + ".saturation", 0.0));
+                    if (bonusHunger[material.ordinal()] > 0 || bonusSaturation[material.ordinal()] > 0) {
+                        foods.add(material);
+                    }
+                }
+            }
+            this.enhancedFoods = foods.toArray(new Material[0]);
+        }
+
+        public int getBonusHunger(Material food) { return bonusHunger[food.ordinal()]; }
+        public float getBonusSaturation(Material food) { return bonusSaturation[food.ordinal()]; }
+
+        public boolean isEnhanced(Material food) {
+            return bonusHunger[food.ordinal()] > 0 || bonusSaturation[food.ordinal()] > 0;
+        }
+
+        public Material[] getEnhancedFoods() { return enhancedFoods.clone(); }
+    }
+}
@@ -1,16 +1,19 @@
 package de.tecca.endOverworld.entities;
 
 import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.world.CityBlockSnapshot;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Villager;
-import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -18,10 +21,20 @@ import java.util.stream.Collectors;
  */
 public class EndCityVillager {
 
-    private static final String METADATA_KEY = "isEndCityVillager";
-    private static final String ID_METADATA_KEY = "endVillagerID";
-    private static final String SPAWN_METADATA_KEY = "spawnLocation";
-    private static final String CREATION_METADATA_KEY = "creationTime";
+    // Safe-location search covers radius 20 plus the 5 block structure check around candidates
+    private static final int MAX_SEARCH_RADIUS = 20;
+    private static final int SNAPSHOT_RADIUS = MAX_SEARCH_RADIUS + 5;
+    private static final int SNAPSHOT_DEPTH = 21;
+    private static final int SNAPSHOT_HEIGHT = 20;
+
+    // Snapshot flags for the safe-location search
+    private static final byte SOLID = 1;
+    private static final byte END_CITY = 1 << 1;
+    private static final byte OPEN = 1 << 2;
+    private static final byte STABLE_GROUND = 1 << 3;
+    private static final byte PLAIN_AIR = 1 << 4;
+
+    private static final byte[] MATERIAL_FLAGS = buildMaterialFlags();
 
     private static final Material[] SAFE_GROUND_MATERIALS = {
             Material.PURPUR_BLOCK, Material.PURPUR_PILLAR, Material.END_STONE,
@@ -32,6 +45,7 @@ public class EndCityVillager {
     private final Villager villager;
     private final String villagerID;
     private final Location spawnLocation;
+    private String cityKey;
 
     public EndCityVillager(EndOverworld plugin, Location spawnLocation) {
         this.plugin = plugin;
@@ -40,30 +54,91 @@ public class EndCityVillager {
         this.villager = createVillager();
     }
 
+    /**
+     * Restores the wrapper for a villager that already carries End City data
+     */
+    private EndCityVillager(EndOverworld plugin, Villager villager, PersistentDataContainer data) {
+        this.plugin = plugin;
+        this.villager = villager;
+        this.villagerID = data.get(EntityKeys.END_VILLAGER_ID, PersistentDataType.STRING);
+        this.cityKey = data.get(EntityKeys.END_CITY_KEY, PersistentDataType.STRING);
+
+        Double x = data.get(EntityKeys.SPAWN_X, PersistentDataType.DOUBLE);
+        Double y = data.get(EntityKeys.SPAWN_Y, PersistentDataType.DOUBLE);
+        Double z = data.get(EntityKeys.SPAWN_Z, PersistentDataType.DOUBLE);
+        this.spawnLocation = x != null && y != null && z != null ?
+                new Location(villager.getWorld(), x, y, z) : villager.getLocation();
+    }
+
+    /**
+     * Re-attaches a wrapper to a loaded villager, or returns null if it is not an End City villager
+     */
+    public static EndCityVillager attach(EndOverworld plugin, Villager villager) {
+        return isEndCityVillager(villager) ?
+                new EndCityVillager(plugin, villager, villager.getPersistentDataContainer()) : null;
+    }
+
     public static List<EndCityVillager> createVillagersNear(EndOverworld plugin, Location center, int count) {
-        return findSafeLocationsNear(center, count + 2).stream()
-                .limit(count)
-                .map(location -> new EndCityVillager(plugin, location))
-                .collect(Collectors.toList());
+        CityBlockSnapshot snapshot = buildSnapshot(captureCity(center));
+        return spawnVillagers(plugin, findSafeLocationsNear(snapshot, center, count + 2), count);
+    }
+
+    /**
+     * Captures the city once, searches spawn locations asynchronously and spawns on the main thread
+     */
+    public static void createVillagersNearAsync(EndOverworld plugin, Location center, int count,
+                                                Consumer<List<EndCityVillager>> callback) {
+        CityBlockSnapshot.Region region = captureCity(center);
+        Location origin = center.clone();
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<Location> locations = findSafeLocationsNear(buildSnapshot(region), origin, count + 2);
+
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () ->
+                    callback.accept(spawnVillagers(plugin, locations, count)));
+        });
     }
 
     public static boolean isEndCityVillager(Villager villager) {
-        return villager.hasMetadata(METADATA_KEY) &&
-                villager.getMetadata(METADATA_KEY).get(0).asBoolean();
+        return villager.getPersistentDataContainer().has(EntityKeys.END_VILLAGER_ID, PersistentDataType.STRING);
     }
 
     public static String getEndCityVillagerID(Villager villager) {
-        return villager.hasMetadata(ID_METADATA_KEY) ?
-                villager.getMetadata(ID_METADATA_KEY).get(0).asString() : null;
+        return villager.getPersistentDataContainer().get(EntityKeys.END_VILLAGER_ID, PersistentDataType.STRING);
     }
 
-    public void returnToSpawn() {
-        if (!isValid()) return;
+    /**
+     * Records which End City this villager belongs to
+     */
+    public void assignCity(String cityKey) {
+        this.cityKey = cityKey;
+        if (isValid()) {
+            villager.getPersistentDataContainer().set(EntityKeys.END_CITY_KEY, PersistentDataType.STRING, cityKey);
+        }
+    }
+
+    /**
+     * Teleports the villager home if it wandered too far
+     *
+     * @return true if the villager was teleported
+     */
+    public boolean returnToSpawn(double maxDistanceSquared) {
+        if (!isValid()) return false;
+        return returnToSpawn(villager.getLocation(), maxDistanceSquared);
+    }
 
-        int maxDistance = plugin.getConfig().getInt("villagers.max-wander-distance", 15);
-        if (villager.getLocation().distance(spawnLocation) > maxDistance) {
-            villager.teleport(spawnLocation);
+    /**
+     * Same as {@link #returnToSpawn(double)} with the villager's current location already at hand
+     */
+    public boolean returnToSpawn(Location current, double maxDistanceSquared) {
+        if (!isValid()) return false;
+
+        if (!spawnLocation.getWorld().equals(current.getWorld()) ||
+                current.distanceSquared(spawnLocation) > maxDistanceSquared) {
+            return villager.teleport(spawnLocation);
         }
+        return false;
     }
 
     public String getGreetingMessage() {
@@ -89,7 +164,7 @@ public class EndCityVillager {
         Villager v = (Villager) spawnLocation.getWorld().spawnEntity(spawnLocation, EntityType.VILLAGER);
 
         setupProperties(v);
-        setupMetadata(v);
+        setupPersistentData(v);
         setupBehavior(v);
 
         return v;
@@ -105,11 +180,13 @@ public class EndCityVillager {
         v.setRemoveWhenFarAway(false);
     }
 
-    private void setupMetadata(Villager v) {
-        v.setMetadata(METADATA_KEY, new FixedMetadataValue(plugin, true));
-        v.setMetadata(ID_METADATA_KEY, new FixedMetadataValue(plugin, villagerID));
-        v.setMetadata(SPAWN_METADATA_KEY, new FixedMetadataValue(plugin, spawnLocation));
-        v.setMetadata(CREATION_METADATA_KEY, new FixedMetadataValue(plugin, System.currentTimeMillis()));
+    private void setupPersistentData(Villager v) {
+        PersistentDataContainer data = v.getPersistentDataContainer();
+        data.set(EntityKeys.END_VILLAGER_ID, PersistentDataType.STRING, villagerID);
+        data.set(EntityKeys.SPAWN_X, PersistentDataType.DOUBLE, spawnLocation.getX());
+        data.set(EntityKeys.SPAWN_Y, PersistentDataType.DOUBLE, spawnLocation.getY());
+        data.set(EntityKeys.SPAWN_Z, PersistentDataType.DOUBLE, spawnLocation.getZ());
+        data.set(EntityKeys.CREATION_TIME, PersistentDataType.LONG, System.currentTimeMillis());
     }
 
     private void setupBehavior(Villager v) {
@@ -136,14 +213,8 @@ public class EndCityVillager {
     }
 
     private String getNameForProfession(Villager.Profession profession) {
-        String configKey = "villagers.names." + profession.name().toLowerCase();
-        List<String> names = plugin.getConfig().getStringList(configKey);
-
-        if (names.isEmpty()) {
-            names = plugin.getConfig().getStringList("villagers.names.generic");
-        }
-
-        return names.isEmpty() ? getFallbackName(profession) : getRandomElement(names);
+        String[] names = plugin.getSettings().getVillagers().getNames(profession.name().toLowerCase());
+        return names == null ? getFallbackName(profession) : names[(int) (Math.random() * names.length)];
     }
 
     private String getFallbackName(Villager.Profession profession) {
@@ -157,28 +228,57 @@ public class EndCityVillager {
         return "§5End Dweller";
     }
 
-    private static List<Location> findSafeLocationsNear(Location center, int maxLocations) {
+    private static CityBlockSnapshot.Region captureCity(Location center) {
+        return CityBlockSnapshot.capture(center, SNAPSHOT_RADIUS, SNAPSHOT_DEPTH, SNAPSHOT_HEIGHT);
+    }
+
+    private static CityBlockSnapshot buildSnapshot(CityBlockSnapshot.Region region) {
+        return region.build(MATERIAL_FLAGS, END_CITY, SOLID);
+    }
+
+    private static List<EndCityVillager> spawnVillagers(EndOverworld plugin, List<Location> locations, int count) {
+        return locations.stream()
+                .limit(count)
+                .map(location -> new EndCityVillager(plugin, location))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Location> findSafeLocationsNear(CityBlockSnapshot snapshot, Location center, int maxLocations) {
         List<Location> locations = new ArrayList<>();
 
         // First verify we're actually in an End City structure
-        if (!isValidEndCityStructure(center)) {
+        if (!isValidEndCityStructure(snapshot, center)) {
             return locations; // Return empty list if not in End City
         }
 
+        int centerX = center.getBlockX();
+        int centerY = center.getBlockY();
+        int centerZ = center.getBlockZ();
+
+        // Expanding radii overlap, so remember which columns were already searched
+        int columnSpan = MAX_SEARCH_RADIUS * 2 + 1;
+        boolean[] searchedColumns = new boolean[columnSpan * columnSpan];
+
         // Search in expanding radius with better spacing
-        for (int radius = 2; radius <= 20 && locations.size() < maxLocations; radius += 3) {
+        for (int radius = 2; radius <= MAX_SEARCH_RADIUS && locations.size() < maxLocations; radius += 3) {
             for (int x = -radius; x <= radius && locations.size() < maxLocations; x += 2) {
                 for (int z = -radius; z <= radius && locations.size() < maxLocations; z += 2) {
                     // Skip center area to avoid overcrowding
                     if (Math.abs(x) < 3 && Math.abs(z) < 3) continue;
 
+                    int column = (x + MAX_SEARCH_RADIUS) * columnSpan + (z + MAX_SEARCH_RADIUS);
+                    if (searchedColumns[column]) continue;
+                    searchedColumns[column] = true;
+
                     // Search vertically for valid spawn points
                     for (int y = -10; y <= 15 && locations.size() < maxLocations; y++) {
-                        Location candidate = center.clone().add(x, y, z);
+                        int blockX = centerX + x;
+                        int blockY = centerY + y;
+                        int blockZ = centerZ + z;
 
-                        if (isSafeSpawnLocation(candidate)) {
+                        if (isSafeSpawnLocation(snapshot, blockX, blockY, blockZ)) {
                             // Add small offset to center villager on block
-                            locations.add(candidate.add(0.5, 0.1, 0.5));
+                            locations.add(new Location(snapshot.getWorld(), blockX + 0.5, blockY + 0.1, blockZ + 0.5));
                         }
                     }
                 }
@@ -191,7 +291,7 @@ public class EndCityVillager {
     /**
      * Enhanced End City structure detection
      */
-    private static boolean isValidEndCityStructure(Location location) {
+    private static boolean isValidEndCityStructure(CityBlockSnapshot snapshot, Location location) {
         int endCityBlocks = 0;
         int totalChecked = 0;
 
@@ -199,11 +299,9 @@ public class EndCityVillager {
         for (int x = -15; x <= 15; x += 3) {
             for (int y = -15; y <= 15; y += 3) {
                 for (int z = -15; z <= 15; z += 3) {
-                    Location check = location.clone().add(x, y, z);
-                    Material block = check.getBlock().getType();
                     totalChecked++;
 
-                    if (isEndCityMaterial(block)) {
+                    if (snapshot.has(location.getBlockX() + x, location.getBlockY() + y, location.getBlockZ() + z, END_CITY)) {
                         endCityBlocks++;
                     }
                 }
@@ -215,6 +313,28 @@ public class EndCityVillager {
         return ratio >= 0.30;
     }
 
+    /**
+     * Builds the per-material flag table the snapshot predicates are evaluated against
+     */
+    private static byte[] buildMaterialFlags() {
+        Material[] materials = Material.values();
+        byte[] table = new byte[materials.length];
+
+        for (Material material : materials) {
+            if (material.isLegacy()) continue;
+
+            byte flags = 0;
+            if (material.isSolid()) flags |= SOLID;
+            if (isEndCityMaterial(material)) flags |= END_CITY;
+            if (isOpenMaterial(material)) flags |= OPEN;
+            if (isStableGround(material)) flags |= STABLE_GROUND;
+            if (material == Material.AIR) flags |= PLAIN_AIR;
+
+            table[material.ordinal()] = flags;
+        }
+        return table;
+    }
+
     /**
      * Checks if a material belongs to End City structures
      */
@@ -236,36 +356,13 @@ public class EndCityVillager {
     }
 
     /**
-     * Comprehensive safe location checking
-     */
-    private static boolean isSafeSpawnLocation(Location location) {
-        if (!hasValidSpawnSpace(location)) return false;
-        if (!hasStableGround(location)) return false;
-        if (isInsideBlock(location)) return false;
-        if (isTooCloseToVoid(location)) return false;
-        if (!isOnEndCityStructure(location)) return false;
-
-        return true;
-    }
-
-    /**
-     * Checks if location has 2 blocks of air space for villager
+     * Checks if a villager can occupy a block of this material (air or passable)
      */
-    private static boolean hasValidSpawnSpace(Location location) {
-        // Check the spawn location and 2 blocks above
-        for (int y = 0; y <= 2; y++) {
-            Location check = location.clone().add(0, y, 0);
-            Material material = check.getBlock().getType();
-
-            // Must be air or passable
-            if (material != Material.AIR &&
-                    material != Material.CAVE_AIR &&
-                    material != Material.VOID_AIR &&
-                    !isPassableMaterial(material)) {
-                return false;
-            }
-        }
-        return true;
+    private static boolean isOpenMaterial(Material material) {
+        return material == Material.AIR ||
+                material == Material.CAVE_AIR ||
+                material == Material.VOID_AIR ||
+                isPassableMaterial(material);
     }
 
     /**
@@ -281,12 +378,9 @@ public class EndCityVillager {
     }
 
     /**
-     * Checks if location has stable ground beneath
+     * Checks if a material is solid ground a villager may stand on
      */
-    private static boolean hasStableGround(Location location) {
-        Location groundCheck = location.clone().add(0, -1, 0);
-        Material ground = groundCheck.getBlock().getType();
-
+    private static boolean isStableGround(Material ground) {
         // Must be solid and preferably End City material
         if (!ground.isSolid()) return false;
 
@@ -299,28 +393,30 @@ public class EndCityVillager {
     }
 
     /**
-     * Checks if location is inside a solid block
+     * Comprehensive safe location checking
      */
-    private static boolean isInsideBlock(Location location) {
-        Material material = location.getBlock().getType();
-        return material.isSolid() &&
-                material != Material.SHORT_GRASS &&
-                material != Material.TALL_GRASS &&
-                !isPassableMaterial(material);
+    private static boolean isSafeSpawnLocation(CityBlockSnapshot snapshot, int x, int y, int z) {
+        // 2 blocks of air space for the villager, which also rules out being inside a block
+        if (!snapshot.has(x, y, z, OPEN) || !snapshot.has(x, y + 1, z, OPEN) || !snapshot.has(x, y + 2, z, OPEN)) {
+            return false;
+        }
+        if (!snapshot.has(x, y - 1, z, STABLE_GROUND)) return false;
+        if (isTooCloseToVoid(snapshot, x, y, z)) return false;
+
+        return isOnEndCityStructure(snapshot, x, y, z);
     }
 
     /**
      * Enhanced void proximity checking
      */
-    private static boolean isTooCloseToVoid(Location location) {
-        // Check 3x3 area around location
-        for (int x = -2; x <= 2; x++) {
-            for (int z = -2; z <= 2; z++) {
-                Location check = location.clone().add(x, -1, z);
-
-                if (check.getBlock().getType() == Material.AIR) {
-                    // Check if there's solid ground within 10 blocks below
-                    if (!hasGroundBelow(check, 10)) {
+    private static boolean isTooCloseToVoid(CityBlockSnapshot snapshot, int x, int y, int z) {
+        // Check 5x5 area around location
+        for (int dx = -2; dx <= 2; dx++) {
+            for (int dz = -2; dz <= 2; dz++) {
+                if (snapshot.has(x + dx, y - 1, z + dz, PLAIN_AIR)) {
+                    // Needs solid ground between 2 and 10 blocks below the air block
+                    int ground = snapshot.columnHeightAtOrBelow(x + dx, y - 3, z + dz);
+                    if (ground < y - 11) {
                         return true; // Too close to void
                     }
                 }
@@ -332,55 +428,21 @@ public class EndCityVillager {
     /**
      * Checks if location is actually on an End City structure
      */
-    private static boolean isOnEndCityStructure(Location location) {
+    private static boolean isOnEndCityStructure(CityBlockSnapshot snapshot, int x, int y, int z) {
         // Check ground and surrounding area for End City materials
-        for (int x = -1; x <= 1; x++) {
-            for (int z = -1; z <= 1; z++) {
-                for (int y = -2; y <= 0; y++) {
-                    Location check = location.clone().add(x, y, z);
-                    if (isEndCityMaterial(check.getBlock().getType())) {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        // Also check for End City materials in wider area
-        int endCityBlocksNearby = 0;
-        for (int x = -5; x <= 5; x++) {
-            for (int y = -5; y <= 5; y++) {
-                for (int z = -5; z <= 5; z++) {
-                    Location check = location.clone().add(x, y, z);
-                    if (isEndCityMaterial(check.getBlock().getType())) {
-                        endCityBlocksNearby++;
-                        if (endCityBlocksNearby >= 10) return true; // Found enough End City blocks
-                    }
-                }
-            }
-        }
-
-        return false;
-    }
+        if (snapshot.count(x - 1, y - 2, z - 1, x + 1, y, z + 1) > 0) return true;
 
-    private static boolean hasGroundBelow(Location location, int depth) {
-        for (int y = -2; y >= -depth; y--) {
-            if (location.clone().add(0, y, 0).getBlock().getType().isSolid()) {
-                return true;
-            }
-        }
-        return false;
+        // Also check for enough End City materials in wider area
+        return snapshot.count(x - 5, y - 5, z - 5, x + 5, y + 5, z + 5) >= 10;
     }
 
     private String generateUniqueID() {
         return "end_villager_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
     }
 
-    private <T> T getRandomElement(List<T> list) {
-        return list.get((int)(Math.random() * list.size()));
-    }
-
     // Getters
     public Villager getVillager() { return villager; }
     public String getVillagerID() { return villagerID; }
     public Location getSpawnLocation() { return spawnLocation; }
+    public String getCityKey() { return cityKey; }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package de.tecca.endOverworld.entities;
+
+import de.tecca.endOverworld.EndOverworld;
+import org.bukkit.NamespacedKey;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Persistent data keys stored on plugin-managed entities.
+ * Unlike metadata these survive chunk unloads and server restarts.
+ */
+public final class EntityKeys {
+
+    private static final EndOverworld PLUGIN = JavaPlugin.getPlugin(EndOverworld.class);
+
+    // End City Villagers
+    public static final NamespacedKey END_VILLAGER_ID = new NamespacedKey(PLUGIN, "end_villager_id");
+    public static final NamespacedKey END_CITY_KEY = new NamespacedKey(PLUGIN, "end_city");
+    public static final NamespacedKey SPAWN_X = new NamespacedKey(PLUGIN, "spawn_x");
+    public static final NamespacedKey SPAWN_Y = new NamespacedKey(PLUGIN, "spawn_y");
+    public static final NamespacedKey SPAWN_Z = new NamespacedKey(PLUGIN, "spawn_z");
+    public static final NamespacedKey CREATION_TIME = new NamespacedKey(PLUGIN, "creation_time");
+
+    // Trading Endermen
+    public static final NamespacedKey TRADER_ID = new NamespacedKey(PLUGIN, "trader_id");
+    public static final NamespacedKey TRADER_LEVEL = new NamespacedKey(PLUGIN, "trader_level");
+    public static final NamespacedKey TRADER_TRADES = new NamespacedKey(PLUGIN, "trader_trades");
+
+    // Trading menu items
+    public static final NamespacedKey TRADE_OFFER_INDEX = new NamespacedKey(PLUGIN, "trade_offer_index");
+    public static final NamespacedKey TRADE_CATALOG_VERSION = new NamespacedKey(PLUGIN, "trade_catalog_version");
+
+    private EntityKeys() {
+    }
+}
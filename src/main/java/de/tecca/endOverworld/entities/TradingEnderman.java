@@ -1,9 +1,15 @@
 package de.tecca.endOverworld.entities;
 
 import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.managers.ParticleManager;
+import de.tecca.endOverworld.trading.PaymentEngine;
+import de.tecca.endOverworld.trading.PricingService;
+import de.tecca.endOverworld.trading.TradeCatalog;
+import de.tecca.endOverworld.trading.TradeMenuCache;
+import de.tecca.endOverworld.trading.TradingManager;
+import de.tecca.endOverworld.trading.TradingMenuHolder;
 import de.tecca.endOverworld.trading.TraderData;
 import de.tecca.endOverworld.trading.TradeOffer;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
@@ -11,30 +17,44 @@ import org.bukkit.Sound;
 import org.bukkit.World;
 import org.bukkit.entity.Enderman;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 
-public class TradingEnderman {
+public class TradingEnderman implements ParticleManager.Emitter {
+
+    public static final String MENU_TITLE_PREFIX = "§5Trading Enderman";
 
     private final EndOverworld plugin;
     private final Enderman enderman;
     private final String traderID;
     private final TraderData traderData;
 
-    public TradingEnderman(EndOverworld plugin, Enderman enderman) {
+    public TradingEnderman(EndOverworld plugin, Enderman enderman, TradeCatalog catalog) {
         this.plugin = plugin;
         this.enderman = enderman;
         this.traderID = "trader_" + System.currentTimeMillis() + "_" + Math.random();
-        this.traderData = new TraderData(traderID, plugin.getTraderConfig());
+        this.traderData = new TraderData(traderID, catalog);
 
         setupEnderman();
-        startParticleEffects();
+    }
+
+    /**
+     * Restores a trader from an enderman that already carries a trader ID
+     */
+    public TradingEnderman(EndOverworld plugin, Enderman enderman, String traderID, TradeCatalog catalog) {
+        this.plugin = plugin;
+        this.enderman = enderman;
+        this.traderID = traderID;
+        this.traderData = new TraderData(traderID, catalog);
+
+        loadProgress();
     }
 
     private void setupEnderman() {
@@ -42,82 +62,88 @@ public class TradingEnderman {
         enderman.setCustomNameVisible(false);
         enderman.setAI(true);
 
-        // Store trader ID and data in enderman metadata
-        enderman.setMetadata("traderID", new FixedMetadataValue(plugin, traderID));
-        enderman.setMetadata("isTradingEnderman", new FixedMetadataValue(plugin, true));
+        // Store trader ID in the enderman's persistent data so it survives unloads and restarts
+        enderman.getPersistentDataContainer().set(EntityKeys.TRADER_ID, PersistentDataType.STRING, traderID);
 
         plugin.getLogger().info("Created Trading Enderman with ID: " + traderID);
     }
 
-    private void startParticleEffects() {
-        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (enderman.isDead() || !enderman.isValid()) {
-                return;
-            }
+    // === Progression persistence ===
 
-            spawnParticles();
-        }, 0L, 10L); // Every 0.5 seconds
+    private void loadProgress() {
+        PersistentDataContainer data = enderman.getPersistentDataContainer();
+        traderData.setLevel(data.getOrDefault(EntityKeys.TRADER_LEVEL, PersistentDataType.INTEGER, 1));
+        traderData.setTradesCompleted(data.getOrDefault(EntityKeys.TRADER_TRADES, PersistentDataType.INTEGER, 0));
     }
 
-    private void spawnParticles() {
-        Location center = enderman.getLocation();
-        World world = center.getWorld();
-        Random random = new Random();
-
-        // Spawn particles around the enderman
-        for (int i = 0; i < 8; i++) {
-            double offsetX = (random.nextDouble() - 0.5) * 1.5;
-            double offsetY = random.nextDouble() * 2.5;
-            double offsetZ = (random.nextDouble() - 0.5) * 1.5;
-
-            Location particleLoc = center.clone().add(offsetX, offsetY, offsetZ);
-
-            if (i % 2 == 0) {
-                world.spawnParticle(Particle.ENCHANT,
-                        particleLoc, 1, 0.1, 0.1, 0.1, 0.01);
-            } else {
-                world.spawnParticle(Particle.END_ROD,
-                        particleLoc, 1, 0.05, 0.05, 0.05, 0.005);
-            }
-        }
+    /**
+     * Writes level and trade count to the enderman's persistent data. Main thread only.
+     */
+    public void saveProgress() {
+        PersistentDataContainer data = enderman.getPersistentDataContainer();
+        data.set(EntityKeys.TRADER_LEVEL, PersistentDataType.INTEGER, traderData.getLevel());
+        data.set(EntityKeys.TRADER_TRADES, PersistentDataType.INTEGER, traderData.getTradesCompleted());
     }
 
-    public void openTradingMenu(Player player) {
-        org.bukkit.inventory.Inventory tradeMenu = Bukkit.createInventory(null, 54,
-                "§5Trading Enderman - Level " + traderData.getLevel());
+    // === Ambient particles (drawn by the shared ParticleManager) ===
 
-        List<TradeOffer> availableOffers = traderData.getAvailableOffers();
+    @Override
+    public Location getParticleLocation(Location reuse) {
+        return enderman.getLocation(reuse);
+    }
 
-        // Place available trades
-        for (int i = 0; i < availableOffers.size() && i < 45; i++) {
-            TradeOffer offer = availableOffers.get(i);
-            ItemStack tradeItem = createTradeItem(offer);
-            tradeMenu.setItem(i + 9, tradeItem);
-        }
+    @Override
+    public boolean isParticleActive() {
+        return enderman.isValid() && !enderman.isDead();
+    }
+
+    @Override
+    public void emitParticles(World world, double x, double y, double z) {
+        // One batched call per particle type, spread around the enderman's body
+        world.spawnParticle(Particle.ENCHANT, x, y + 1.25, z, 4, 0.4, 0.7, 0.4, 0.01);
+        world.spawnParticle(Particle.END_ROD, x, y + 1.25, z, 4, 0.4, 0.7, 0.4, 0.005);
+    }
 
-        // Info item
-        ItemStack info = createInfoItem();
-        tradeMenu.setItem(4, info);
+    public void openTradingMenu(Player player) {
+        TradingMenuHolder menu = new TradingMenuHolder(this, getMenuTitle());
+        org.bukkit.inventory.Inventory tradeMenu = menu.getInventory();
 
-        // Store trader ID in player metadata for trade processing
-        player.setMetadata("currentTraderID", new FixedMetadataValue(plugin, traderID));
+        // Offer slots come from the shared template, only the info book is rendered per open
+        renderOffers(menu);
+        tradeMenu.setItem(TradeMenuCache.INFO_SLOT, createInfoItem());
 
         player.openInventory(tradeMenu);
         player.sendMessage("§5The Trading Enderman shows you their wares (Level " + traderData.getLevel() + ")...");
     }
 
-    private ItemStack createTradeItem(TradeOffer offer) {
-        ItemStack tradeItem = new ItemStack(offer.getOutputMaterial());
-        org.bukkit.inventory.meta.ItemMeta meta = tradeItem.getItemMeta();
-        meta.setDisplayName(offer.getDisplayName());
-        meta.setLore(Arrays.asList(
-                "§7Cost: §e" + offer.getInputAmount() + " " + formatMaterialName(offer.getInputMaterial()),
-                "§7Gives: §a" + offer.getOutputAmount() + " " + formatMaterialName(offer.getOutputMaterial()),
-                "§7Rarity: " + offer.getRarityColor() + offer.getRarity(),
-                "§6Click to trade!"
-        ));
-        tradeItem.setItemMeta(meta);
-        return tradeItem;
+    /**
+     * Updates this trader's menu in place if the player still has it open
+     */
+    private void refreshOpenMenu(Player player, boolean levelChanged) {
+        InventoryView view = player.getOpenInventory();
+        if (!(view.getTopInventory().getHolder() instanceof TradingMenuHolder)) return;
+
+        TradingMenuHolder menu = (TradingMenuHolder) view.getTopInventory().getHolder();
+        if (menu.getTrader() != this) return;
+
+        if (levelChanged) {
+            renderOffers(menu);
+            view.setTitle(getMenuTitle());
+        }
+        menu.getInventory().setItem(TradeMenuCache.INFO_SLOT, createInfoItem());
+    }
+
+    private void renderOffers(TradingMenuHolder menu) {
+        TradingManager manager = plugin.getTradingManager();
+        TradeCatalog catalog = traderData.getCatalog();
+        PricingService.PriceSnapshot prices = manager.getPricingService().getSnapshot();
+
+        menu.getInventory().setContents(manager.getMenuCache().getTemplate(catalog, traderData.getLevel(), prices));
+        menu.setOffers(traderData.getAvailableOffers(), catalog.getVersion(), prices);
+    }
+
+    private String getMenuTitle() {
+        return MENU_TITLE_PREFIX + " - Level " + traderData.getLevel();
     }
 
     private ItemStack createInfoItem() {
@@ -125,7 +151,7 @@ public class TradingEnderman {
         org.bukkit.inventory.meta.ItemMeta infoMeta = info.getItemMeta();
         infoMeta.setDisplayName("§5Trader Level " + traderData.getLevel());
         infoMeta.setLore(Arrays.asList(
-                "§7This trader has " + traderData.getAvailableOffers().size() + " items available",
+                "§7This trader has " + traderData.getUnlockedOfferCount() + " items available",
                 "§7Complete trades to unlock more items!",
                 "§7Trades completed: " + traderData.getTradesCompleted(),
                 "§7Next level: " + getNextLevelProgress()
@@ -146,73 +172,95 @@ public class TradingEnderman {
         return "§e" + needed + " more trades needed";
     }
 
-    private String formatMaterialName(Material material) {
-        return material.name().toLowerCase().replace("_", " ");
-    }
+    public boolean processTrade(Player player, ItemStack tradeItem, TradingMenuHolder menu) {
+        // Menu was built from an older catalog (reload while open)
+        if (menu.getCatalogVersion() != traderData.getCatalog().getVersion()) {
+            player.sendMessage("§cThe trader's wares have changed!");
+            openTradingMenu(player);
+            return false;
+        }
 
-    public boolean processTrade(Player player, ItemStack tradeItem) {
-        org.bukkit.inventory.meta.ItemMeta meta = tradeItem.getItemMeta();
-        if (meta == null || meta.getLore() == null) return false;
+        int offerIndex = resolveOfferIndex(tradeItem, menu);
+        if (offerIndex < 0) {
+            // Item was not tagged by this menu, e.g. the info book or a stale copy
+            if (isStaleTradeItem(tradeItem)) {
+                player.sendMessage("§cThe trader's wares have changed!");
+                openTradingMenu(player);
+            }
+            return false;
+        }
 
-        try {
-            String costLine = meta.getLore().get(0);
-            String[] costParts = costLine.replace("§7Cost: §e", "").split(" ");
-            int requiredAmount = Integer.parseInt(costParts[0]);
+        // Charge the price the menu showed, not whatever was published since
+        TradeOffer offer = menu.getOffers().get(offerIndex);
+        int price = menu.getPrices().getPrice(traderData.getCatalog(), offerIndex);
 
-            if (player.getInventory().contains(Material.CHORUS_FRUIT, requiredAmount)) {
-                // Remove payment
-                player.getInventory().removeItem(new ItemStack(Material.CHORUS_FRUIT, requiredAmount));
+        PaymentEngine payments = plugin.getTradingManager().getPaymentEngine();
+        if (!offer.executeTrade(player.getInventory(), payments, price)) {
+            String orEquivalent = payments.isCurrency(offer.getInputMaterial()) ? " (or equivalent currency)" : "";
+            player.sendMessage("§cYou need " + price + " " + offer.getInputMaterial().name().toLowerCase().replace("_", " ")
+                    + orEquivalent + "!");
+            player.playSound(player.getLocation(), Sound.ENTITY_VILLAGER_NO, 1.0f, 1.0f);
+            return false;
+        }
 
-                // Give reward
-                String givesLine = meta.getLore().get(1);
-                String[] givesParts = givesLine.replace("§7Gives: §a", "").split(" ");
-                int giveAmount = Integer.parseInt(givesParts[0]);
+        // Update trader progress
+        int previousLevel = traderData.getLevel();
+        traderData.completeTrade();
 
-                ItemStack reward = new ItemStack(tradeItem.getType(), giveAmount);
-                player.getInventory().addItem(reward);
+        player.sendMessage("§aTrade successful! Trader experience increased.");
+        player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0f, 1.0f);
 
-                // Update trader progress
-                traderData.completeTrade();
+        // Check for level up, then update the open menu in place
+        boolean leveledUp = checkLevelUp(player);
+        refreshOpenMenu(player, leveledUp);
 
-                player.sendMessage("§aTrade successful! Trader experience increased.");
-                player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0f, 1.0f);
+        // Statistics, demand and persistence (written by the next flush)
+        TradingManager manager = plugin.getTradingManager();
+        manager.recordTrade(this, previousLevel);
+        manager.getPricingService().recordTrade(traderData.getCatalog(), offerIndex);
 
-                // Check for level up
-                checkLevelUp(player);
+        return true;
+    }
 
-                return true;
-            } else {
-                player.sendMessage("§cYou need " + requiredAmount + " Chorus Fruit!");
-                player.playSound(player.getLocation(), Sound.ENTITY_VILLAGER_NO, 1.0f, 1.0f);
-                return false;
-            }
-        } catch (Exception e) {
-            player.sendMessage("§cTrade failed! Please try again.");
-            return false;
-        }
+    /**
+     * Looks up the offer index a menu item was tagged with in the menu's offer table, or -1 if the tag is missing or stale.
+     * Offer indices are catalog indices, since unlocked offers are a prefix of the catalog.
+     */
+    private int resolveOfferIndex(ItemStack tradeItem, TradingMenuHolder menu) {
+        org.bukkit.inventory.meta.ItemMeta meta = tradeItem.getItemMeta();
+        if (meta == null) return -1;
+
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        Integer index = data.get(EntityKeys.TRADE_OFFER_INDEX, PersistentDataType.INTEGER);
+        Integer version = data.get(EntityKeys.TRADE_CATALOG_VERSION, PersistentDataType.INTEGER);
+        if (index == null || version == null || version != menu.getCatalogVersion()) return -1;
+
+        return index >= 0 && index < menu.getOffers().size() ? index : -1;
     }
 
-    private void checkLevelUp(Player player) {
-        if (traderData.shouldLevelUp()) {
-            traderData.levelUp();
-            player.sendMessage("§6The Trading Enderman has leveled up! New items available!");
-            player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f);
-
-            // Add level up particle effects
-            for (int i = 0; i < 20; i++) {
-                Location particleLoc = enderman.getLocation().add(
-                        (Math.random() - 0.5) * 2,
-                        Math.random() * 3,
-                        (Math.random() - 0.5) * 2
-                );
-                enderman.getWorld().spawnParticle(Particle.FIREWORK, particleLoc, 1);
-            }
+    private boolean isStaleTradeItem(ItemStack tradeItem) {
+        org.bukkit.inventory.meta.ItemMeta meta = tradeItem.getItemMeta();
+        if (meta == null) return false;
 
-            // Refresh the menu after a short delay
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                openTradingMenu(player);
-            }, 5L);
+        Integer version = meta.getPersistentDataContainer().get(EntityKeys.TRADE_CATALOG_VERSION, PersistentDataType.INTEGER);
+        return version != null && version != traderData.getCatalog().getVersion();
+    }
+
+    private boolean checkLevelUp(Player player) {
+        if (!traderData.shouldLevelUp()) {
+            return false;
         }
+
+        traderData.levelUp();
+        player.sendMessage("§6The Trading Enderman has leveled up! New items available!");
+        player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f);
+
+        // Level up burst in a single batched call
+        Location center = enderman.getLocation();
+        enderman.getWorld().spawnParticle(Particle.FIREWORK, center.getX(), center.getY() + 1.5, center.getZ(),
+                20, 0.5, 0.75, 0.5, 0.0);
+
+        return true;
     }
 
     public void defendAgainstAttacker(Player attacker) {
@@ -256,14 +304,10 @@ public class TradingEnderman {
 
     // Static helper methods
     public static boolean isTradingEnderman(Enderman enderman) {
-        return enderman.hasMetadata("isTradingEnderman") &&
-                enderman.getMetadata("isTradingEnderman").get(0).asBoolean();
+        return enderman.getPersistentDataContainer().has(EntityKeys.TRADER_ID, PersistentDataType.STRING);
     }
 
     public static String getTradingEndermanID(Enderman enderman) {
-        if (enderman.hasMetadata("traderID")) {
-            return enderman.getMetadata("traderID").get(0).asString();
-        }
-        return null;
+        return enderman.getPersistentDataContainer().get(EntityKeys.TRADER_ID, PersistentDataType.STRING);
     }
 }
\ No newline at end of file
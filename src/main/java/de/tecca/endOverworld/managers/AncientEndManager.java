@@ -35,7 +35,8 @@ public class AncientEndManager implements Listener {
     private final Map<String, BukkitTask> wardenTasks = new ConcurrentHashMap<>();
     private final Set<String> processedChunks = ConcurrentHashMap.newKeySet();
 
-    private BukkitTask particleTask;
+    private final Map<String, SiteEmitter> siteEmitters = new ConcurrentHashMap<>();
+
     private BukkitTask cleanupTask;
 
     private static final long ENTRY_COOLDOWN = 30_000L;
@@ -67,6 +68,12 @@ public class AncientEndManager implements Listener {
 
     public AncientEndManager(EndOverworld plugin) {
         this.plugin = plugin;
+    }
+
+    /**
+     * Starts the background cleanup, once the feature is registered
+     */
+    public void start() {
         startBackgroundTasks();
     }
 
@@ -74,7 +81,7 @@ public class AncientEndManager implements Listener {
 
     @EventHandler
     public void onChunkLoad(ChunkLoadEvent event) {
-        if (event.getWorld().getEnvironment() != World.Environment.THE_END) return;
+        if (!plugin.getWorldManager().isEndWorld(event.getWorld())) return;
 
         String chunkKey = getChunkKey(event.getChunk());
         if (processedChunks.contains(chunkKey)) return;
@@ -82,9 +89,10 @@ public class AncientEndManager implements Listener {
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             StructureData structureData = scanChunkForStructures(event.getChunk());
             if (structureData.isValidEndCity()) {
-                Bukkit.getScheduler().runTask(plugin, () ->
-                        processAncientSite(structureData.calculateCenter())
-                );
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    plugin.getStructureManager().getRegionIndex().recordBlocks(structureData.getEndCityBlocks(), 5);
+                    processAncientSite(structureData.calculateCenter());
+                });
             }
             processedChunks.add(chunkKey);
         });
@@ -132,6 +140,7 @@ public class AncientEndManager implements Listener {
         placeSculkInfrastructure(center, structure);
         addAncientLoot(center, structure);
         scheduleWardenSpawn(center);
+        registerSiteEmitter(siteKey, center);
 
         plugin.getLogger().info("Ancient Site created at " + formatLocation(center) +
                 " affecting " + structure.getBlockCount() + " blocks");
@@ -627,8 +636,7 @@ public class AncientEndManager implements Listener {
 
     @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
-        if (event.getTo() == null ||
-                event.getTo().getWorld().getEnvironment() != World.Environment.THE_END) return;
+        if (event.getTo() == null || !plugin.getWorldManager().isEndWorld(event.getTo().getWorld())) return;
 
         Player player = event.getPlayer();
         UUID playerId = player.getUniqueId();
@@ -655,7 +663,7 @@ public class AncientEndManager implements Listener {
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
         Block block = event.getBlock();
-        if (block.getWorld().getEnvironment() != World.Environment.THE_END) return;
+        if (!plugin.getWorldManager().isEndWorld(block.getWorld())) return;
 
         if (isAncientMaterial(block.getType()) && ThreadLocalRandom.current().nextDouble() < 0.12) {
             ItemStack bonus = createBonusLoot(block.getType());
@@ -683,15 +691,44 @@ public class AncientEndManager implements Listener {
     // === BACKGROUND TASKS ===
 
     private void startBackgroundTasks() {
-        particleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::updateParticles, 0L, 60L);
         cleanupTask = Bukkit.getScheduler().runTaskTimer(plugin, this::performCleanup, 6000L, 6000L);
     }
 
-    private void updateParticles() {
-        for (Location site : ancientSites.values()) {
-            if (hasNearbyPlayers(site, 40)) {
-                spawnSiteParticles(site);
-            }
+    private void registerSiteEmitter(String siteKey, Location center) {
+        SiteEmitter emitter = new SiteEmitter(siteKey, center);
+        siteEmitters.put(siteKey, emitter);
+        plugin.getParticleManager().register(emitter, 60L);
+    }
+
+    /**
+     * Ambient spore particles drawn by the shared ParticleManager while the site exists
+     */
+    private class SiteEmitter implements ParticleManager.Emitter {
+        private final String siteKey;
+        private final Location center;
+
+        private SiteEmitter(String siteKey, Location center) {
+            this.siteKey = siteKey;
+            this.center = center;
+        }
+
+        @Override
+        public Location getParticleLocation(Location reuse) {
+            reuse.setWorld(center.getWorld());
+            reuse.setX(center.getX());
+            reuse.setY(center.getY());
+            reuse.setZ(center.getZ());
+            return reuse;
+        }
+
+        @Override
+        public boolean isParticleActive() {
+            return ancientSites.containsKey(siteKey);
+        }
+
+        @Override
+        public void emitParticles(World world, double x, double y, double z) {
+            spawnSiteParticles(world, x, y, z);
         }
     }
 
@@ -720,27 +757,15 @@ public class AncientEndManager implements Listener {
         playerCooldowns.put(playerId, System.currentTimeMillis());
     }
 
-    private boolean hasNearbyPlayers(Location location, int radius) {
-        return location.getWorld().getPlayers().stream()
-                .anyMatch(p -> p.getLocation().distance(location) < radius);
-    }
-
     private void notifyNearbyPlayers(Location center, String message) {
         center.getWorld().getPlayers().stream()
                 .filter(p -> p.getLocation().distance(center) < 40)
                 .forEach(p -> p.sendMessage(message));
     }
 
-    private void spawnSiteParticles(Location location) {
-        World world = location.getWorld();
-        for (int i = 0; i < 2; i++) { // Reduced from 3
-            Location particle = location.clone().add(
-                    (ThreadLocalRandom.current().nextDouble() - 0.5) * 12,
-                    ThreadLocalRandom.current().nextDouble() * 5,
-                    (ThreadLocalRandom.current().nextDouble() - 0.5) * 12
-            );
-            world.spawnParticle(Particle.FALLING_SPORE_BLOSSOM, particle, 1);
-        }
+    private void spawnSiteParticles(World world, double x, double y, double z) {
+        // Two spores spread over the site in a single call
+        world.spawnParticle(Particle.FALLING_SPORE_BLOSSOM, x, y + 2.5, z, 2, 3.0, 1.25, 3.0, 0.0);
     }
 
     private void spawnEntryParticles(Location location) {
@@ -794,9 +819,10 @@ public class AncientEndManager implements Listener {
     }
 
     public void cleanup() {
-        if (particleTask != null) particleTask.cancel();
         if (cleanupTask != null) cleanupTask.cancel();
         wardenTasks.values().forEach(BukkitTask::cancel);
+        siteEmitters.values().forEach(plugin.getParticleManager()::unregister);
+        siteEmitters.clear();
 
         ancientSites.clear();
         playerCooldowns.clear();
@@ -1,6 +1,7 @@
 package de.tecca.endOverworld.managers;
 
 import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.config.Settings;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -11,9 +12,9 @@ import org.bukkit.event.player.PlayerBedEnterEvent;
 import org.bukkit.event.player.PlayerBedLeaveEvent;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
@@ -22,18 +23,64 @@ import java.util.UUID;
 public class BedManager implements Listener {
 
     private final EndOverworld plugin;
-    private final Map<UUID, Integer> healingTasks;
 
-    // Healing configuration
-    private static final int HEALING_INTERVAL = 40; // ticks (2 seconds)
-    private static final int FOOD_INTERVAL = 60; // ticks (3 seconds)
-    private static final int MAX_HEALING_TIME = 200; // ticks (10 seconds)
-    private static final double HEALING_AMOUNT = 2.0; // 1 heart per interval
-    private static final int FOOD_AMOUNT = 1; // 1 food level per interval
+    // Sleeping players, the game time of their world when they lay down and their next heal and feed
+    // times, packed into the first sleeperCount slots. Game time advances every tick whenever the ticker
+    // happens to run, so nothing fires early for players who lie down between two runs.
+    private Player[] sleepers = new Player[8];
+    private long[] startTicks = new long[8];
+    private long[] nextHeals = new long[8];
+    private long[] nextFeeds = new long[8];
+    private int sleeperCount;
+
+    // One shared ticker, only running while someone is sleeping
+    private BukkitTask healingTask;
+
+    // Healing configuration (ticks), from the beds settings
+    private int healingInterval;
+    private int foodInterval;
+    private int maxHealingTime;
+    private double healingAmount;
+    private int foodAmount;
+    private int tickerPeriod;
 
     public BedManager(EndOverworld plugin) {
         this.plugin = plugin;
-        this.healingTasks = new HashMap<>();
+        reloadSettings();
+    }
+
+    /**
+     * Applies the beds section of the current settings. The ticker runs at the greatest common divisor of the intervals,
+     * so every heal, feed and timeout still lands on a run. Sleepers keep their scheduled heal and feed times, which
+     * are reached on the first run at or after them whatever the new period.
+     */
+    public void reloadSettings() {
+        Settings.Beds beds = plugin.getSettings().getBeds();
+        healingInterval = beds.getHealingInterval();
+        foodInterval = beds.getFoodInterval();
+        maxHealingTime = beds.getMaxHealingTime();
+        healingAmount = beds.getHealingAmount();
+        foodAmount = beds.getFoodAmount();
+
+        int period = gcd(gcd(healingInterval, foodInterval), maxHealingTime);
+        if (period != tickerPeriod) {
+            tickerPeriod = period;
+            // Restart with the new period if someone is sleeping right now
+            if (healingTask != null) {
+                healingTask.cancel();
+                healingTask = null;
+                ensureTicker();
+            }
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
     }
 
     /**
@@ -45,7 +92,7 @@ public class BedManager implements Listener {
         Location bedLocation = event.getBed().getLocation();
 
         // Only handle beds in the End dimension
-        if (bedLocation.getWorld().getEnvironment() != org.bukkit.World.Environment.THE_END) {
+        if (!plugin.getWorldManager().isEndWorld(bedLocation.getWorld())) {
             return;
         }
 
@@ -71,7 +118,7 @@ public class BedManager implements Listener {
         Player player = event.getPlayer();
 
         // Only handle beds in the End dimension
-        if (player.getLocation().getWorld().getEnvironment() != org.bukkit.World.Environment.THE_END) {
+        if (!plugin.getWorldManager().isEndWorld(player.getWorld())) {
             return;
         }
 
@@ -93,61 +140,105 @@ public class BedManager implements Listener {
     }
 
     private void startBedHealing(Player player) {
-        UUID playerId = player.getUniqueId();
-
-        // Cancel any existing healing task
+        // Restart if already healing
         stopBedHealing(player);
 
-        // Start new healing task
-        int taskId = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
-            int ticks = 0;
-
-            @Override
-            public void run() {
-                // Check if player is still in bed and valid
-                if (!player.isOnline() || !player.isSleeping()) {
-                    stopBedHealing(player);
-                    return;
-                }
-
-                ticks++;
-
-                // Heal 1 heart every 2 seconds
-                if (ticks % HEALING_INTERVAL == 0 && player.getHealth() < player.getMaxHealth()) {
-                    double newHealth = Math.min(player.getMaxHealth(), player.getHealth() + HEALING_AMOUNT);
-                    player.setHealth(newHealth);
-
-                    // Add regeneration effect
-                    player.addPotionEffect(new PotionEffect(
-                            PotionEffectType.REGENERATION, 60, 0, true, false));
-
-                    // Spawn healing particles
-                    spawnHealingParticles(player);
-                }
-
-                // Restore food every 3 seconds
-                if (ticks % FOOD_INTERVAL == 0 && player.getFoodLevel() < 20) {
-                    int newFood = Math.min(20, player.getFoodLevel() + FOOD_AMOUNT);
-                    player.setFoodLevel(newFood);
-                }
-
-                // Stop after maximum healing time
-                if (ticks >= MAX_HEALING_TIME) {
-                    stopBedHealing(player);
-                }
+        if (sleeperCount == sleepers.length) {
+            sleepers = Arrays.copyOf(sleepers, sleeperCount * 2);
+            startTicks = Arrays.copyOf(startTicks, sleeperCount * 2);
+            nextHeals = Arrays.copyOf(nextHeals, sleeperCount * 2);
+            nextFeeds = Arrays.copyOf(nextFeeds, sleeperCount * 2);
+        }
+        long now = player.getWorld().getGameTime();
+        sleepers[sleeperCount] = player;
+        startTicks[sleeperCount] = now;
+        nextHeals[sleeperCount] = now + healingInterval;
+        nextFeeds[sleeperCount] = now + foodInterval;
+        sleeperCount++;
+
+        ensureTicker();
+        plugin.getLogger().fine("Started bed healing for " + player.getName());
+    }
+
+    private void ensureTicker() {
+        if (healingTask == null && sleeperCount > 0) {
+            healingTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tickHealing, tickerPeriod, tickerPeriod);
+        }
+    }
+
+    private void tickHealing() {
+        // Backwards, so removing a sleeper only moves already visited slots
+        for (int i = sleeperCount - 1; i >= 0; i--) {
+            Player player = sleepers[i];
+
+            // Check if player is still in bed and valid
+            if (!player.isOnline() || !player.isSleeping()) {
+                removeSleeper(i);
+                continue;
             }
-        }, 0L, 1L).getTaskId();
 
-        healingTasks.put(playerId, taskId);
-        plugin.getLogger().fine("Started bed healing for " + player.getName());
+            // Sleeping players cannot change worlds, so this is the clock they started on
+            long now = player.getWorld().getGameTime();
+            long elapsed = now - startTicks[i];
+
+            // Heal 1 heart every healing interval
+            boolean healDue = now >= nextHeals[i];
+            if (healDue) nextHeals[i] = now + healingInterval;
+
+            if (healDue && player.getHealth() < player.getMaxHealth()) {
+                double newHealth = Math.min(player.getMaxHealth(), player.getHealth() + healingAmount);
+                player.setHealth(newHealth);
+
+                // Add regeneration effect
+                player.addPotionEffect(new PotionEffect(
+                        PotionEffectType.REGENERATION, 60, 0, true, false));
+
+                // Spawn healing particles
+                spawnHealingParticles(player);
+            }
+
+            // Restore food every food interval
+            boolean feedDue = now >= nextFeeds[i];
+            if (feedDue) nextFeeds[i] = now + foodInterval;
+
+            if (feedDue && player.getFoodLevel() < 20) {
+                int newFood = Math.min(20, player.getFoodLevel() + foodAmount);
+                player.setFoodLevel(newFood);
+            }
+
+            // Stop after maximum healing time
+            if (elapsed >= maxHealingTime) {
+                removeSleeper(i);
+            }
+        }
+
+        if (sleeperCount == 0) {
+            healingTask.cancel();
+            healingTask = null;
+        }
     }
 
-    private void stopBedHealing(Player player) {
+    private int indexOf(Player player) {
         UUID playerId = player.getUniqueId();
-        Integer taskId = healingTasks.remove(playerId);
+        for (int i = 0; i < sleeperCount; i++) {
+            if (sleepers[i].getUniqueId().equals(playerId)) return i;
+        }
+        return -1;
+    }
+
+    private void removeSleeper(int index) {
+        int last = --sleeperCount;
+        sleepers[index] = sleepers[last];
+        startTicks[index] = startTicks[last];
+        nextHeals[index] = nextHeals[last];
+        nextFeeds[index] = nextFeeds[last];
+        sleepers[last] = null;
+    }
 
-        if (taskId != null) {
-            Bukkit.getScheduler().cancelTask(taskId);
+    private void stopBedHealing(Player player) {
+        int index = indexOf(player);
+        if (index >= 0) {
+            removeSleeper(index);
             plugin.getLogger().fine("Stopped bed healing for " + player.getName());
         }
     }
@@ -230,7 +321,7 @@ public class BedManager implements Listener {
      * Checks if a player is currently being healed by a bed
      */
     public boolean isPlayerBeingHealed(Player player) {
-        return healingTasks.containsKey(player.getUniqueId());
+        return indexOf(player) >= 0;
     }
 
     /**
@@ -244,7 +335,7 @@ public class BedManager implements Listener {
      * Checks if a location has adequate bed support
      */
     public boolean isValidBedLocation(Location location) {
-        return location.getWorld().getEnvironment() == org.bukkit.World.Environment.THE_END &&
+        return plugin.getWorldManager().isEndWorld(location.getWorld()) &&
                 hasGroundSupport(location);
     }
 
@@ -254,12 +345,13 @@ public class BedManager implements Listener {
     public String getHealingInfo() {
         StringBuilder info = new StringBuilder();
         info.append("=== Bed Healing Information ===\n");
-        info.append("Healing Interval: ").append(HEALING_INTERVAL).append(" ticks (").append(HEALING_INTERVAL/20.0).append("s)\n");
-        info.append("Food Interval: ").append(FOOD_INTERVAL).append(" ticks (").append(FOOD_INTERVAL/20.0).append("s)\n");
-        info.append("Max Healing Time: ").append(MAX_HEALING_TIME).append(" ticks (").append(MAX_HEALING_TIME/20.0).append("s)\n");
-        info.append("Healing per Interval: ").append(HEALING_AMOUNT).append(" health\n");
-        info.append("Food per Interval: ").append(FOOD_AMOUNT).append(" hunger\n");
-        info.append("Active Healing Players: ").append(healingTasks.size()).append("\n");
+        info.append("Healing Interval: ").append(healingInterval).append(" ticks (").append(healingInterval/20.0).append("s)\n");
+        info.append("Food Interval: ").append(foodInterval).append(" ticks (").append(foodInterval/20.0).append("s)\n");
+        info.append("Max Healing Time: ").append(maxHealingTime).append(" ticks (").append(maxHealingTime/20.0).append("s)\n");
+        info.append("Healing per Interval: ").append(healingAmount).append(" health\n");
+        info.append("Food per Interval: ").append(foodAmount).append(" hunger\n");
+        info.append("Ticker Period: ").append(tickerPeriod).append(" ticks\n");
+        info.append("Active Healing Players: ").append(sleeperCount).append("\n");
         info.append("Ground Support Required: true\n");
 
         return info.toString();
@@ -269,27 +361,28 @@ public class BedManager implements Listener {
      * Gets all players currently being healed
      */
     public java.util.Set<UUID> getHealingPlayers() {
-        return new java.util.HashSet<>(healingTasks.keySet());
+        java.util.Set<UUID> players = new java.util.HashSet<>();
+        for (int i = 0; i < sleeperCount; i++) {
+            players.add(sleepers[i].getUniqueId());
+        }
+        return players;
     }
 
     /**
      * Cleanup method - removes invalid healing tasks
      */
     public void cleanup() {
-        healingTasks.entrySet().removeIf(entry -> {
-            Player player = Bukkit.getPlayer(entry.getKey());
-            if (player == null || !player.isOnline() || !player.isSleeping()) {
-                Bukkit.getScheduler().cancelTask(entry.getValue());
-                return true;
+        for (int i = sleeperCount - 1; i >= 0; i--) {
+            if (!sleepers[i].isOnline() || !sleepers[i].isSleeping()) {
+                removeSleeper(i);
             }
-            return false;
-        });
+        }
     }
 
     /**
      * Gets bed healing statistics
      */
     public int getActiveHealingCount() {
-        return healingTasks.size();
+        return sleeperCount;
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package de.tecca.endOverworld.managers;
+
+import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.config.Settings;
+import org.bukkit.event.Listener;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Feature toggles from the features section of config.yml.
+ * A feature's listeners are only registered while it is enabled, and its timers are only started once
+ * registration succeeds, so disabled features are never called for any event or tick.
+ */
+public class FeatureRegistry {
+
+    public enum Feature {
+        NEW_PLAYER_SPAWN("new-player-spawn", "End Spawning"),
+        PORTALS("portals", "Portal Mechanics"),
+        BEDS("beds", "End Beds"),
+        BLOCK_MECHANICS("block-mechanics", "Block Mechanics"),
+        ENHANCED_FOOD("enhanced-food", "Enhanced Food"),
+        MOB_BEHAVIOR("mob-behavior", "Mob Behavior"),
+        TRADING_ENDERMEN("trading-endermen", "Trading Endermen"),
+        END_CITY_VILLAGERS("end-city-villagers", "End City Villagers"),
+        ANCIENT_SITES("ancient-sites", "Ancient End Sites"),
+        POST_PROCESSING("end-city-post-processing", "End City Post-Processing");
+
+        private final String configKey;
+        private final String displayName;
+
+        Feature(String configKey, String displayName) {
+            this.configKey = configKey;
+            this.displayName = displayName;
+        }
+
+        public String getConfigKey() { return "features." + configKey; }
+        public String getDisplayName() { return displayName; }
+    }
+
+    private final EndOverworld plugin;
+    private final Set<Feature> enabled = EnumSet.noneOf(Feature.class);
+
+    public FeatureRegistry(EndOverworld plugin) {
+        this.plugin = plugin;
+        enabled.addAll(plugin.getSettings().getFeatures());
+    }
+
+    /**
+     * Warns about feature flags that changed in a reloaded snapshot. Listeners are wired at startup,
+     * so flag changes only take effect after a restart.
+     */
+    public void checkFlags(Settings settings) {
+        if (!settings.getFeatures().equals(enabled)) {
+            plugin.getLogger().warning("Feature flags changed - restart the server to apply them");
+        }
+    }
+
+    public boolean isEnabled(Feature feature) {
+        return enabled.contains(feature);
+    }
+
+    /**
+     * Registers the listener of a feature if the feature is enabled
+     *
+     * @return whether the listener was registered
+     */
+    public boolean register(Feature feature, Listener listener) {
+        if (!isEnabled(feature)) return false;
+
+        plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+        return true;
+    }
+
+    /**
+     * Logs the state of every feature
+     */
+    public void logStatus() {
+        plugin.getLogger().info("=== EndOverworld Features ===");
+        for (Feature feature : Feature.values()) {
+            plugin.getLogger().info(feature.getDisplayName() + ": " + (isEnabled(feature) ? "ENABLED" : "DISABLED"));
+        }
+    }
+}
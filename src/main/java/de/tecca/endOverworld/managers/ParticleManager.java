@@ -0,0 +1,150 @@
+package de.tecca.endOverworld.managers;
+
+import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.world.ChunkBucketIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single scheduler for all ambient particle effects (Trading Endermen, Ancient Sites).
+ * Emitters are only drawn when a player is within view distance, found through a chunk-bucketed player index.
+ */
+public class ParticleManager implements Listener {
+
+    /**
+     * Something that periodically draws ambient particles
+     */
+    public interface Emitter {
+
+        /**
+         * Writes the emitter position into the given location and returns it, or null if unavailable
+         */
+        Location getParticleLocation(Location reuse);
+
+        /**
+         * Inactive emitters (dead or unloaded entities, removed sites) are dropped automatically
+         */
+        boolean isParticleActive();
+
+        /**
+         * Draws one round of particles, preferably as few batched spawnParticle calls
+         */
+        void emitParticles(World world, double x, double y, double z);
+    }
+
+    private static final long BASE_PERIOD = 5L; // ticks between scheduler runs
+
+    private final EndOverworld plugin;
+    private final Map<Emitter, Schedule> emitters = new LinkedHashMap<>();
+    private final ChunkBucketIndex<Player> playerIndex = new ChunkBucketIndex<>();
+    private final Location emitterScratch = new Location(null, 0, 0, 0);
+    private final Location playerScratch = new Location(null, 0, 0, 0);
+
+    private double viewDistance;
+    private double viewDistanceSquared;
+    private BukkitTask particleTask;
+
+    public ParticleManager(EndOverworld plugin) {
+        this.plugin = plugin;
+        reloadSettings();
+        particleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drawParticles, BASE_PERIOD, BASE_PERIOD);
+    }
+
+    /**
+     * Applies the particle view distance of the current settings
+     */
+    public void reloadSettings() {
+        viewDistance = plugin.getSettings().getParticleViewDistance();
+        viewDistanceSquared = viewDistance * viewDistance;
+    }
+
+    /**
+     * Registers an emitter, drawn roughly every periodTicks ticks
+     */
+    public void register(Emitter emitter, long periodTicks) {
+        int runs = (int) Math.max(1, (periodTicks + BASE_PERIOD - 1) / BASE_PERIOD);
+        emitters.put(emitter, new Schedule(runs));
+    }
+
+    public void unregister(Emitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        playerIndex.remove(event.getPlayer());
+    }
+
+    private void drawParticles() {
+        if (emitters.isEmpty()) return;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            playerIndex.update(player, player.getLocation(playerScratch));
+        }
+
+        Iterator<Map.Entry<Emitter, Schedule>> iterator = emitters.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Emitter, Schedule> entry = iterator.next();
+            Emitter emitter = entry.getKey();
+
+            if (!emitter.isParticleActive()) {
+                iterator.remove();
+                continue;
+            }
+
+            Schedule schedule = entry.getValue();
+            if (--schedule.countdown > 0) continue;
+            schedule.countdown = schedule.runs;
+
+            Location location = emitter.getParticleLocation(emitterScratch);
+            if (location == null || location.getWorld() == null) continue;
+
+            if (hasViewer(location)) {
+                emitter.emitParticles(location.getWorld(), location.getX(), location.getY(), location.getZ());
+            }
+        }
+    }
+
+    private boolean hasViewer(Location location) {
+        World world = location.getWorld();
+        return playerIndex.anyNear(world, location.getX(), location.getZ(), viewDistance, player -> {
+            Location playerLocation = player.getLocation(playerScratch);
+            return world.equals(playerLocation.getWorld()) &&
+                    playerLocation.distanceSquared(location) <= viewDistanceSquared;
+        });
+    }
+
+    public int getEmitterCount() {
+        return emitters.size();
+    }
+
+    /**
+     * Stops the scheduler and drops all emitters (for plugin disable)
+     */
+    public void cleanup() {
+        if (particleTask != null) particleTask.cancel();
+        emitters.clear();
+        playerIndex.clear();
+    }
+
+    private static final class Schedule {
+        private final int runs;
+        private int countdown;
+
+        private Schedule(int runs) {
+            this.runs = runs;
+            this.countdown = runs;
+        }
+    }
+}
@@ -58,7 +58,7 @@ public class PortalManager implements Listener {
         Block block = event.getClickedBlock();
         ItemStack item = event.getItem();
 
-        if (block.getWorld().getEnvironment() != World.Environment.THE_END) return;
+        if (!worldManager.isEndWorld(block.getWorld())) return;
         if (!isLightingTool(item)) return;
 
         if (isOnCooldown(player)) {
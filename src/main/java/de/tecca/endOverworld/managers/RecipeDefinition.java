@@ -0,0 +1,203 @@
+package de.tecca.endOverworld.managers;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.ShapedRecipe;
+import org.bukkit.inventory.ShapelessRecipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * One recipe from the recipes section of config.yml. Immutable, and equal to another definition exactly when
+ * both would register the same recipe, so reloads can tell which recipes changed.
+ */
+public final class RecipeDefinition {
+
+    private final String name;
+    private final boolean shaped;
+    private final List<String> shape;
+    private final Map<Character, Material> shapedIngredients;
+    private final List<Material> shapelessIngredients;
+    private final Material result;
+    private final int amount;
+
+    private RecipeDefinition(String name, boolean shaped, List<String> shape, Map<Character, Material> shapedIngredients,
+                             List<Material> shapelessIngredients, Material result, int amount) {
+        this.name = name;
+        this.shaped = shaped;
+        this.shape = shape;
+        this.shapedIngredients = shapedIngredients;
+        this.shapelessIngredients = shapelessIngredients;
+        this.result = result;
+        this.amount = amount;
+    }
+
+    /**
+     * Parses every recipe of a recipes section, skipping invalid entries with a warning
+     *
+     * @return unmodifiable definitions by recipe name, in config order
+     */
+    public static Map<String, RecipeDefinition> parseAll(ConfigurationSection section, Logger logger) {
+        Map<String, RecipeDefinition> definitions = new LinkedHashMap<>();
+        if (section == null) return Collections.unmodifiableMap(definitions);
+
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection recipe = section.getConfigurationSection(name);
+            try {
+                if (recipe == null) throw new IllegalArgumentException("not a section");
+                definitions.put(name, parse(name, recipe));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid recipe '" + name + "': " + e.getMessage());
+            }
+        }
+        return Collections.unmodifiableMap(definitions);
+    }
+
+    private static RecipeDefinition parse(String name, ConfigurationSection section) {
+        // Fails early on names NamespacedKey would reject
+        if (!name.matches("[a-z0-9/._-]+")) {
+            throw new IllegalArgumentException("recipe names may only contain a-z, 0-9, '/', '.', '_' and '-'");
+        }
+
+        Material result = material(section.getString("result"));
+        int amount = section.getInt("amount", 1);
+        if (amount < 1 || amount > result.getMaxStackSize()) {
+            throw new IllegalArgumentException("invalid amount " + amount);
+        }
+
+        String type = section.getString("type", "shaped");
+        if (type.equalsIgnoreCase("shapeless")) {
+            List<Material> ingredients = new ArrayList<>();
+            for (String ingredient : section.getStringList("ingredients")) {
+                ingredients.add(material(ingredient));
+            }
+            if (ingredients.isEmpty() || ingredients.size() > 9) {
+                throw new IllegalArgumentException("shapeless recipes need 1 to 9 ingredients");
+            }
+            return new RecipeDefinition(name, false, Collections.emptyList(), Collections.emptyMap(),
+                    Collections.unmodifiableList(ingredients), result, amount);
+        }
+
+        if (!type.equalsIgnoreCase("shaped")) {
+            throw new IllegalArgumentException("unknown type " + type);
+        }
+
+        List<String> shape = section.getStringList("shape");
+        if (shape.isEmpty() || shape.size() > 3) {
+            throw new IllegalArgumentException("shape needs 1 to 3 rows");
+        }
+
+        ConfigurationSection ingredientSection = section.getConfigurationSection("ingredients");
+        if (ingredientSection == null) {
+            throw new IllegalArgumentException("missing ingredients");
+        }
+
+        Map<Character, Material> ingredients = new LinkedHashMap<>();
+        for (String symbol : ingredientSection.getKeys(false)) {
+            if (symbol.length() != 1) {
+                throw new IllegalArgumentException("ingredient key '" + symbol + "' must be a single character");
+            }
+            ingredients.put(symbol.charAt(0), material(ingredientSection.getString(symbol)));
+        }
+
+        for (String row : shape) {
+            if (row.isEmpty() || row.length() > 3) {
+                throw new IllegalArgumentException("shape rows need 1 to 3 characters");
+            }
+            for (char symbol : row.toCharArray()) {
+                if (symbol != ' ' && !ingredients.containsKey(symbol)) {
+                    throw new IllegalArgumentException("no ingredient for '" + symbol + "'");
+                }
+            }
+        }
+
+        return new RecipeDefinition(name, true, Collections.unmodifiableList(new ArrayList<>(shape)),
+                Collections.unmodifiableMap(ingredients), Collections.emptyList(), result, amount);
+    }
+
+    private static Material material(String name) {
+        Material material = name == null ? null : Material.matchMaterial(name);
+        if (material == null || !material.isItem() || material.isAir()) {
+            throw new IllegalArgumentException("unknown item " + name);
+        }
+        return material;
+    }
+
+    /**
+     * Creates the Bukkit recipe for this definition
+     */
+    public Recipe toRecipe(NamespacedKey key) {
+        ItemStack output = new ItemStack(result, amount);
+
+        if (!shaped) {
+            ShapelessRecipe recipe = new ShapelessRecipe(key, output);
+            for (Material ingredient : shapelessIngredients) {
+                recipe.addIngredient(ingredient);
+            }
+            return recipe;
+        }
+
+        ShapedRecipe recipe = new ShapedRecipe(key, output);
+        recipe.shape(shape.toArray(new String[0]));
+        for (Map.Entry<Character, Material> ingredient : shapedIngredients.entrySet()) {
+            // Bukkit rejects ingredients that are not part of the shape
+            if (shape.stream().anyMatch(row -> row.indexOf(ingredient.getKey()) >= 0)) {
+                recipe.setIngredient(ingredient.getKey(), ingredient.getValue());
+            }
+        }
+        return recipe;
+    }
+
+    public String getName() { return name; }
+    public Material getResult() { return result; }
+    public int getAmount() { return amount; }
+
+    /**
+     * Gets a short description for logging, e.g. "4 CHORUS_FLOWER -> 1 CHERRY_PLANKS"
+     */
+    public String describe() {
+        List<Material> inputs = new ArrayList<>(shapelessIngredients);
+        for (String row : shape) {
+            for (char symbol : row.toCharArray()) {
+                if (symbol != ' ') inputs.add(shapedIngredients.get(symbol));
+            }
+        }
+
+        Map<Material, Integer> counts = new LinkedHashMap<>();
+        for (Material input : inputs) {
+            counts.merge(input, 1, Integer::sum);
+        }
+
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<Material, Integer> count : counts.entrySet()) {
+            if (description.length() > 0) description.append(" + ");
+            description.append(count.getValue()).append(' ').append(count.getKey());
+        }
+        return description.append(" -> ").append(amount).append(' ').append(result).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecipeDefinition)) return false;
+        RecipeDefinition other = (RecipeDefinition) o;
+        return shaped == other.shaped && amount == other.amount && name.equals(other.name) &&
+                result == other.result && shape.equals(other.shape) &&
+                shapedIngredients.equals(other.shapedIngredients) &&
+                shapelessIngredients.equals(other.shapelessIngredients);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, shaped, shape, shapedIngredients, shapelessIngredients, result, amount);
+    }
+}
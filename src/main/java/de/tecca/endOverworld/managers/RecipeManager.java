@@ -1,86 +1,290 @@
 package de.tecca.endOverworld.managers;
 
 import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.managers.FeatureRegistry.Feature;
 import org.bukkit.Bukkit;
+import org.bukkit.Keyed;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.inventory.CraftingRecipe;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.RecipeChoice;
 import org.bukkit.inventory.ShapedRecipe;
+import org.bukkit.inventory.ShapelessRecipe;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Manages all custom recipes for the End Overworld
+ * Manages all custom recipes for the End Overworld.
+ * Recipes are declared in the recipes section of config.yml. Registration is batched with a single client
+ * recipe resync at the end, and reloads only touch recipes whose definitions changed.
  */
 public class RecipeManager {
 
+    // Paper API: add/remove without resyncing every player's recipe book, then resync once.
+    // Spigot's addRecipe never resyncs, so there plain calls are already batched.
+    private static final Method ADD_RECIPE = findServerMethod("addRecipe", Recipe.class, boolean.class);
+    private static final Method REMOVE_RECIPE = findServerMethod("removeRecipe", NamespacedKey.class, boolean.class);
+    private static final Method UPDATE_RECIPES = findServerMethod("updateRecipes");
+
     private final EndOverworld plugin;
-    private final List<NamespacedKey> registeredRecipes;
+    private final Set<NamespacedKey> registeredRecipes;
+    private final Set<NamespacedKey> endStoneVariants;
+
+    // Currently registered config recipes by name
+    private Map<String, RecipeDefinition> definitions = Collections.emptyMap();
+    private boolean resyncPending;
 
     public RecipeManager(EndOverworld plugin) {
         this.plugin = plugin;
-        this.registeredRecipes = new ArrayList<>();
+        this.registeredRecipes = new LinkedHashSet<>();
+        this.endStoneVariants = new HashSet<>();
     }
 
     /**
      * Registers all custom recipes
      */
     public void registerAllRecipes() {
-        registerChorusFlowerRecipe();
-        registerChorusPlantRecipe();
+        applyDefinitions();
+
+        if (plugin.getFeatureRegistry().isEnabled(Feature.BLOCK_MECHANICS)) {
+            registerEndStoneVariants();
+        }
+        flushResync();
 
         plugin.getLogger().info("Registered " + registeredRecipes.size() + " custom recipes");
     }
 
-    private void registerChorusFlowerRecipe() {
-        try {
-            NamespacedKey key = new NamespacedKey(plugin, "chorus_flower_to_cherry_plank");
-            ShapedRecipe recipe = new ShapedRecipe(key, new ItemStack(Material.CHERRY_PLANKS, 1));
-            recipe.shape("CC", "CC");
-            recipe.setIngredient('C', Material.CHORUS_FLOWER);
-
-            if (Bukkit.addRecipe(recipe)) {
-                registeredRecipes.add(key);
-                plugin.getLogger().info("Added recipe: 4 Chorus Flowers -> Cherry Planks");
+    /**
+     * Applies the recipes of the current settings as a difference: removed and changed recipes are unregistered,
+     * new and changed ones registered, unchanged ones are left alone. Players are resynced at most once.
+     */
+    public void reloadRecipes() {
+        applyDefinitions();
+        flushResync();
+    }
+
+    private void applyDefinitions() {
+        Map<String, RecipeDefinition> parsed = plugin.getSettings().getRecipes();
+
+        int removed = 0, added = 0;
+        Map<String, RecipeDefinition> active = new LinkedHashMap<>();
+        for (RecipeDefinition old : definitions.values()) {
+            if (old.equals(parsed.get(old.getName()))) continue;
+
+            NamespacedKey key = new NamespacedKey(plugin, old.getName());
+            // A recipe the server no longer knows counts as removed
+            if (removeBatched(key) || Bukkit.getRecipe(key) == null) {
+                registeredRecipes.remove(key);
+                removed++;
             } else {
-                plugin.getLogger().warning("Failed to add chorus flower recipe");
+                // Still registered: keep it, so the next reload retries instead of adding a duplicate
+                active.put(old.getName(), old);
+                plugin.getLogger().warning("Kept old recipe " + old.getName() + ", it could not be removed");
+            }
+        }
+
+        for (RecipeDefinition definition : parsed.values()) {
+            if (active.containsKey(definition.getName())) continue;
+
+            if (definition.equals(definitions.get(definition.getName()))) {
+                active.put(definition.getName(), definition);
+                continue;
+            }
+
+            NamespacedKey key = new NamespacedKey(plugin, definition.getName());
+            try {
+                if (addBatched(definition.toRecipe(key))) {
+                    active.put(definition.getName(), definition);
+                    added++;
+                    plugin.getLogger().info("Added recipe: " + definition.describe());
+                } else {
+                    plugin.getLogger().warning("Failed to add recipe " + definition.getName());
+                }
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error registering recipe " + definition.getName() + ": " + e.getMessage());
             }
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error registering chorus flower recipe: " + e.getMessage());
         }
+
+        definitions = Collections.unmodifiableMap(active);
+
+        if (removed > 0 || added > 0) {
+            plugin.getLogger().info("Recipes updated: " + added + " added, " + removed + " removed, " +
+                    (active.size() - added) + " unchanged");
+        }
+    }
+
+    private boolean addBatched(Recipe recipe) throws ReflectiveOperationException {
+        boolean added = ADD_RECIPE != null
+                ? (Boolean) ADD_RECIPE.invoke(Bukkit.getServer(), recipe, false)
+                : Bukkit.addRecipe(recipe);
+        if (added) {
+            registeredRecipes.add(((Keyed) recipe).getKey());
+            resyncPending = true;
+        }
+        return added;
     }
 
-    private void registerChorusPlantRecipe() {
+    private boolean removeBatched(NamespacedKey key) {
+        boolean removed;
         try {
-            NamespacedKey key = new NamespacedKey(plugin, "chorus_plant_to_cherry_plank");
-            ShapedRecipe recipe = new ShapedRecipe(key, new ItemStack(Material.CHERRY_PLANKS, 1));
-            recipe.shape("CC", "CC");
-            recipe.setIngredient('C', Material.CHORUS_PLANT);
-
-            if (Bukkit.addRecipe(recipe)) {
-                registeredRecipes.add(key);
-                plugin.getLogger().info("Added recipe: 4 Chorus Plants -> Cherry Planks");
-            } else {
-                plugin.getLogger().warning("Failed to add chorus plant recipe");
-            }
+            removed = REMOVE_RECIPE != null
+                    ? (Boolean) REMOVE_RECIPE.invoke(Bukkit.getServer(), key, false)
+                    : Bukkit.removeRecipe(key);
         } catch (Exception e) {
-            plugin.getLogger().severe("Error registering chorus plant recipe: " + e.getMessage());
+            plugin.getLogger().warning("Failed to remove recipe " + key + ": " + e.getMessage());
+            return false;
+        }
+
+        if (removed) {
+            registeredRecipes.remove(key);
+            endStoneVariants.remove(key);
+            resyncPending = true;
         }
+        return removed;
     }
 
     /**
-     * Removes all registered recipes (for plugin disable)
+     * Sends the recipe changes of the current batch to all players in one go
      */
-    public void unregisterAllRecipes() {
-        for (NamespacedKey key : registeredRecipes) {
+    private void flushResync() {
+        if (!resyncPending) return;
+        resyncPending = false;
+
+        if (UPDATE_RECIPES != null) {
+            try {
+                UPDATE_RECIPES.invoke(Bukkit.getServer());
+            } catch (ReflectiveOperationException e) {
+                plugin.getLogger().warning("Failed to resync recipes: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Method findServerMethod(String name, Class<?>... parameterTypes) {
+        try {
+            return Server.class.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registers a copy of every crafting recipe that takes Cobblestone, with End Stone accepted wherever
+     * Cobblestone is. Done once at startup, so crafting never has to search the recipe book for a substitute.
+     */
+    private void registerEndStoneVariants() {
+        // Snapshot first, adding recipes while iterating the recipe book is not safe
+        List<CraftingRecipe> candidates = new ArrayList<>();
+        Iterator<Recipe> iterator = Bukkit.recipeIterator();
+        while (iterator.hasNext()) {
+            Recipe recipe = iterator.next();
+            if (recipe instanceof CraftingRecipe &&
+                    !((Keyed) recipe).getKey().getNamespace().equals(plugin.getName().toLowerCase())) {
+                candidates.add((CraftingRecipe) recipe);
+            }
+        }
+
+        int added = 0;
+        for (CraftingRecipe recipe : candidates) {
+            CraftingRecipe variant = createEndStoneVariant(recipe);
+            if (variant == null) continue;
+
             try {
-                Bukkit.removeRecipe(key);
+                if (addBatched(variant)) {
+                    endStoneVariants.add(variant.getKey());
+                    added++;
+                }
             } catch (Exception e) {
-                plugin.getLogger().warning("Failed to remove recipe " + key + ": " + e.getMessage());
+                plugin.getLogger().warning("Failed to add End Stone variant of " + recipe.getKey() + ": " + e.getMessage());
+            }
+        }
+
+        plugin.getLogger().info("Added " + added + " End Stone variants of Cobblestone recipes");
+    }
+
+    private CraftingRecipe createEndStoneVariant(CraftingRecipe recipe) {
+        NamespacedKey key = new NamespacedKey(plugin,
+                "end_stone/" + recipe.getKey().getNamespace() + "/" + recipe.getKey().getKey());
+
+        CraftingRecipe variant;
+        if (recipe instanceof ShapedRecipe) {
+            ShapedRecipe shaped = (ShapedRecipe) recipe;
+            ShapedRecipe copy = new ShapedRecipe(key, shaped.getResult());
+            copy.shape(shaped.getShape());
+
+            boolean substituted = false;
+            for (Map.Entry<Character, RecipeChoice> entry : shaped.getChoiceMap().entrySet()) {
+                if (entry.getValue() == null) continue;
+
+                RecipeChoice choice = withEndStone(entry.getValue());
+                substituted |= choice != entry.getValue();
+                copy.setIngredient(entry.getKey(), choice);
+            }
+            if (!substituted) return null;
+            variant = copy;
+        } else if (recipe instanceof ShapelessRecipe) {
+            ShapelessRecipe copy = new ShapelessRecipe(key, recipe.getResult());
+
+            boolean substituted = false;
+            for (RecipeChoice ingredient : ((ShapelessRecipe) recipe).getChoiceList()) {
+                RecipeChoice choice = withEndStone(ingredient);
+                substituted |= choice != ingredient;
+                copy.addIngredient(choice);
             }
+            if (!substituted) return null;
+            variant = copy;
+        } else {
+            return null;
+        }
+
+        variant.setGroup(recipe.getGroup());
+        variant.setCategory(recipe.getCategory());
+        return variant;
+    }
+
+    /**
+     * Returns the choice extended by End Stone if it accepts Cobblestone, otherwise the choice itself
+     */
+    private RecipeChoice withEndStone(RecipeChoice choice) {
+        if (!(choice instanceof RecipeChoice.MaterialChoice)) return choice;
+
+        List<Material> materials = ((RecipeChoice.MaterialChoice) choice).getChoices();
+        if (!materials.contains(Material.COBBLESTONE) || materials.contains(Material.END_STONE)) return choice;
+
+        List<Material> extended = new ArrayList<>(materials);
+        extended.add(Material.END_STONE);
+        return new RecipeChoice.MaterialChoice(extended);
+    }
+
+    /**
+     * Checks if a recipe is an End Stone variant of a Cobblestone recipe
+     */
+    public boolean isEndStoneVariant(NamespacedKey key) {
+        return endStoneVariants.contains(key);
+    }
+
+    /**
+     * Removes all registered recipes (for plugin disable)
+     */
+    public void unregisterAllRecipes() {
+        for (NamespacedKey key : new ArrayList<>(registeredRecipes)) {
+            removeBatched(key);
         }
         registeredRecipes.clear();
+        endStoneVariants.clear();
+        definitions = Collections.emptyMap();
+        flushResync();
         plugin.getLogger().info("Unregistered all custom recipes");
     }
 
@@ -115,8 +319,8 @@ public class RecipeManager {
             recipe.shape(pattern);
             recipe.setIngredient(ingredient, ingredientMaterial);
 
-            if (Bukkit.addRecipe(recipe)) {
-                registeredRecipes.add(key);
+            if (addBatched(recipe)) {
+                flushResync();
                 plugin.getLogger().info("Added custom recipe: " + name);
                 return true;
             }
@@ -131,8 +335,13 @@ public class RecipeManager {
      */
     public boolean removeRecipe(String name) {
         NamespacedKey key = new NamespacedKey(plugin, name);
-        if (Bukkit.removeRecipe(key)) {
-            registeredRecipes.remove(key);
+        if (removeBatched(key)) {
+            flushResync();
+            if (definitions.containsKey(name)) {
+                Map<String, RecipeDefinition> remaining = new LinkedHashMap<>(definitions);
+                remaining.remove(name);
+                definitions = Collections.unmodifiableMap(remaining);
+            }
             plugin.getLogger().info("Removed recipe: " + name);
             return true;
         }
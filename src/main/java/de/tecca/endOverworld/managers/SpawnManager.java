@@ -44,7 +44,7 @@ public class SpawnManager implements Listener {
     public void onPlayerRespawn(PlayerRespawnEvent event) {
         // If player has a bed spawn in the End, use that
         if (event.getRespawnLocation() != null &&
-                event.getRespawnLocation().getWorld().getEnvironment() == World.Environment.THE_END) {
+                worldManager.isEndWorld(event.getRespawnLocation().getWorld())) {
             return;
         }
 
@@ -160,7 +160,7 @@ public class SpawnManager implements Listener {
      * Checks if a location is safe for spawning
      */
     public boolean isSafeSpawnLocation(Location location) {
-        return location.getWorld().getEnvironment() == World.Environment.THE_END &&
+        return worldManager.isEndWorld(location.getWorld()) &&
                 isSafePlatform(location.getWorld(), location);
     }
 }
\ No newline at end of file
@@ -1,21 +1,76 @@
 package de.tecca.endOverworld.managers;
 
 import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.config.Settings;
+import de.tecca.endOverworld.world.CompatibilityProfile;
 import org.bukkit.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages world operations without custom generation
  * Now focuses on world access and utility functions
  */
-public class WorldManager {
+public class WorldManager implements Listener {
 
     private final EndOverworld plugin;
-    private World endWorld;
+    private volatile World endWorld;
     private World netherWorld;
 
+    // UIDs of all loaded End worlds, read by listeners on every event (also from async tasks)
+    private final Set<UUID> endWorldIds = ConcurrentHashMap.newKeySet();
+
+    // Detected End modifications, rebuilt when the datapacks folder changes
+    private volatile CompatibilityProfile compatibilityProfile =
+            new CompatibilityProfile(Collections.emptyList(), false, false);
+    private Boolean customMaterials; // Registry scan result, the registry does not change at runtime
+    private volatile Path datapackFolder; // The server only loads datapacks from the primary world
+    private WatchService datapackWatcher;
+
     public WorldManager(EndOverworld plugin) {
         this.plugin = plugin;
         initializeWorlds();
+
+        for (World world : Bukkit.getWorlds()) {
+            trackWorld(world);
+        }
+    }
+
+    private void trackWorld(World world) {
+        if (world.getEnvironment() == World.Environment.THE_END) {
+            endWorldIds.add(world.getUID());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        trackWorld(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        endWorldIds.remove(event.getWorld().getUID());
+        plugin.getStructureManager().getRegionIndex().forgetWorld(event.getWorld());
     }
 
     private void initializeWorlds() {
@@ -95,7 +150,7 @@ public class WorldManager {
      * Checks if a world is the End dimension
      */
     public boolean isEndWorld(World world) {
-        return world != null && world.getEnvironment() == World.Environment.THE_END;
+        return world != null && endWorldIds.contains(world.getUID());
     }
 
     /**
@@ -119,56 +174,174 @@ public class WorldManager {
         }
     }
 
+    /**
+     * Detects End modifications and starts watching the datapacks folder for changes.
+     * Needs the settings, so it runs once they are loaded.
+     */
+    public void startCompatibilityDetection() {
+        List<World> worlds = Bukkit.getWorlds();
+        if (!worlds.isEmpty()) {
+            datapackFolder = worlds.get(0).getWorldFolder().toPath().resolve("datapacks");
+        }
+
+        rebuildCompatibilityProfile();
+        startDatapackWatcher();
+    }
+
+    /**
+     * Rebuilds the compatibility profile from the current settings
+     */
+    public void reloadSettings() {
+        rebuildCompatibilityProfile();
+    }
+
+    /**
+     * Gets the cached compatibility profile, never scans disk or the registry
+     */
+    public CompatibilityProfile getCompatibilityProfile() {
+        return compatibilityProfile;
+    }
+
     /**
      * Checks if Nullscape or other End modifications are detected
      */
     public boolean hasCustomEndGeneration() {
-        // Check for signs of custom terrain generation
-        return checkForCustomDatapacks() || checkForCustomMaterials();
+        return compatibilityProfile.hasCustomEndGeneration();
     }
 
-    private boolean checkForCustomDatapacks() {
-        try {
-            if (endWorld != null) {
-                java.io.File worldFolder = endWorld.getWorldFolder();
-                java.io.File datapackFolder = new java.io.File(worldFolder, "datapacks");
-
-                if (datapackFolder.exists() && datapackFolder.isDirectory()) {
-                    java.io.File[] datapacks = datapackFolder.listFiles();
-                    if (datapacks != null) {
-                        for (java.io.File datapack : datapacks) {
-                            String name = datapack.getName().toLowerCase();
-                            if (name.startsWith("nullscape") ||
-                                    name.contains("end") ||
-                                    name.contains("outer") ||
-                                    name.contains("incendium")) {
-                                plugin.getLogger().info("Detected End modification datapack: " + datapack.getName());
-                                return true;
-                            }
-                        }
-                    }
+    // Called from the main thread and the watcher thread
+    private synchronized void rebuildCompatibilityProfile() {
+        Settings.Compatibility settings = plugin.getSettings().getCompatibility();
+        List<String> datapacks = findEndDatapacks(settings);
+        boolean materials = settings.isCheckCustomMaterials() && hasCustomMaterials();
+
+        if (!datapacks.equals(compatibilityProfile.getEndDatapacks())) {
+            for (String datapack : datapacks) {
+                plugin.getLogger().info("Detected End modification datapack: " + datapack);
+            }
+        }
+
+        compatibilityProfile = new CompatibilityProfile(datapacks, materials, settings.isProtectCustomTerrain());
+    }
+
+    private List<String> findEndDatapacks(Settings.Compatibility settings) {
+        List<String> datapacks = new ArrayList<>();
+        Path datapackFolder = this.datapackFolder;
+        if (datapackFolder == null || !Files.isDirectory(datapackFolder)) return datapacks;
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(datapackFolder)) {
+            for (Path datapack : entries) {
+                String name = datapack.getFileName().toString().toLowerCase();
+                if ((settings.isNullscapeSupport() && name.startsWith("nullscape")) ||
+                        (settings.isCustomTerrainSupport() &&
+                                (name.contains("end") || name.contains("outer") || name.contains("incendium")))) {
+                    datapacks.add(datapack.getFileName().toString());
                 }
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             plugin.getLogger().warning("Could not check for datapacks: " + e.getMessage());
         }
-        return false;
+
+        Collections.sort(datapacks);
+        return datapacks;
     }
 
-    private boolean checkForCustomMaterials() {
+    private boolean hasCustomMaterials() {
+        if (customMaterials != null) return customMaterials;
+
+        customMaterials = false;
         try {
             // Check for modded materials (non-minecraft namespace)
-            for (org.bukkit.Material material : org.bukkit.Material.values()) {
-                String key = material.getKey().toString();
-                if (!key.startsWith("minecraft:")) {
+            for (Material material : Material.values()) {
+                if (!material.isLegacy() && !"minecraft".equals(material.getKey().getNamespace())) {
                     plugin.getLogger().info("Detected custom materials - enhanced compatibility enabled");
-                    return true;
+                    customMaterials = true;
+                    break;
                 }
             }
         } catch (Exception e) {
             plugin.getLogger().warning("Could not check for custom materials: " + e.getMessage());
         }
-        return false;
+        return customMaterials;
+    }
+
+    /**
+     * Watches the primary world folder for the datapacks folder appearing or disappearing, and the
+     * datapacks folder itself for added, removed or changed datapacks
+     */
+    private void startDatapackWatcher() {
+        if (datapackFolder == null) return;
+
+        Path worldFolder = datapackFolder.getParent();
+        try {
+            datapackWatcher = worldFolder.getFileSystem().newWatchService();
+            worldFolder.register(datapackWatcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+            registerDatapackFolder();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not watch the datapacks folder, datapack changes need a restart: " + e.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(this::watchDatapacks, "EndOverworld-DatapackWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void registerDatapackFolder() throws IOException {
+        if (Files.isDirectory(datapackFolder)) {
+            datapackFolder.register(datapackWatcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+    }
+
+    private void watchDatapacks() {
+        try {
+            while (true) {
+                boolean changed = handleWatchKey(datapackWatcher.take());
+
+                // Copying a datapack fires many events, rebuild once they settle
+                WatchKey next;
+                while ((next = datapackWatcher.poll(500, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= handleWatchKey(next);
+                }
+
+                if (changed) {
+                    rebuildCompatibilityProfile();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by cleanup()
+        }
+    }
+
+    private boolean handleWatchKey(WatchKey key) {
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            Path watched = (Path) key.watchable();
+            if (watched.equals(datapackFolder)) {
+                changed = true;
+            } else if (watched.resolve((Path) event.context()).equals(datapackFolder)) {
+                changed = true;
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    try {
+                        registerDatapackFolder();
+                    } catch (IOException e) {
+                        plugin.getLogger().warning("Could not watch the new datapacks folder: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        key.reset();
+        return changed;
     }
 
     /**
@@ -205,6 +378,8 @@ public class WorldManager {
         info.append("End World: ").append(endWorld != null ? endWorld.getName() : "null").append("\n");
         info.append("Nether World: ").append(netherWorld != null ? netherWorld.getName() : "null").append("\n");
         info.append("Custom Generation: ").append(hasCustomEndGeneration()).append("\n");
+        info.append("End Datapacks: ").append(compatibilityProfile.getEndDatapacks()).append("\n");
+        info.append("Custom Materials: ").append(compatibilityProfile.hasCustomMaterials()).append("\n");
         info.append("Generation Type: Vanilla + Post-Processing\n");
 
         if (endWorld != null) {
@@ -230,6 +405,14 @@ public class WorldManager {
     public void cleanup() {
         plugin.getLogger().info("WorldManager cleanup - saving worlds...");
 
+        if (datapackWatcher != null) {
+            try {
+                datapackWatcher.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not close the datapack watcher: " + e.getMessage());
+            }
+        }
+
         if (endWorld != null) {
             endWorld.save();
         }
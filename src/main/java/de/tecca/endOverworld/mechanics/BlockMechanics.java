@@ -1,15 +1,14 @@
 package de.tecca.endOverworld.mechanics;
 
 import de.tecca.endOverworld.EndOverworld;
-import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
+import org.bukkit.Keyed;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
-import org.bukkit.inventory.CraftingInventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.Recipe;
 
@@ -47,34 +46,25 @@ public class BlockMechanics implements Listener {
     }
 
     /**
-     * Allows End Stone to substitute for Cobblestone in all recipes
+     * End Stone substitutes for Cobblestone through the recipe variants registered by RecipeManager.
+     * This only keeps creative mode players on the vanilla recipes.
      */
     @EventHandler
     public void onPrepareItemCraft(PrepareItemCraftEvent event) {
-        // Skip recipe substitution for creative mode players
-        if (isCreativePlayer(event)) return;
+        Recipe recipe = event.getRecipe();
+        if (!(recipe instanceof Keyed) ||
+                !plugin.getRecipeManager().isEndStoneVariant(((Keyed) recipe).getKey())) return;
 
-        CraftingInventory inventory = event.getInventory();
-        ItemStack[] matrix = inventory.getMatrix();
-
-        // Check if recipe uses End Stone but no Cobblestone
-        boolean hasEndStone = false;
-        boolean hasCobblestone = false;
-
-        for (ItemStack item : matrix) {
-            if (item != null) {
-                if (item.getType() == Material.END_STONE) {
-                    hasEndStone = true;
-                } else if (item.getType() == Material.COBBLESTONE) {
-                    hasCobblestone = true;
-                }
-            }
+        if (isCreativePlayer(event) && containsEndStone(event.getInventory().getMatrix())) {
+            event.getInventory().setResult(null);
         }
+    }
 
-        // If we have End Stone but no Cobblestone, try substitution
-        if (hasEndStone && !hasCobblestone) {
-            processEndStoneSubstitution(event, matrix);
+    private boolean containsEndStone(ItemStack[] matrix) {
+        for (ItemStack item : matrix) {
+            if (item != null && item.getType() == Material.END_STONE) return true;
         }
+        return false;
     }
 
     /**
@@ -87,31 +77,6 @@ public class BlockMechanics implements Listener {
                 .anyMatch(player -> player.getGameMode() == GameMode.CREATIVE);
     }
 
-    private void processEndStoneSubstitution(PrepareItemCraftEvent event, ItemStack[] originalMatrix) {
-        // Create modified matrix with End Stone replaced by Cobblestone
-        ItemStack[] modifiedMatrix = new ItemStack[originalMatrix.length];
-
-        for (int i = 0; i < originalMatrix.length; i++) {
-            if (originalMatrix[i] != null && originalMatrix[i].getType() == Material.END_STONE) {
-                modifiedMatrix[i] = new ItemStack(Material.COBBLESTONE, originalMatrix[i].getAmount());
-            } else {
-                modifiedMatrix[i] = originalMatrix[i];
-            }
-        }
-
-        // Try to find a recipe with the modified matrix
-        try {
-            Recipe recipe = Bukkit.getCraftingRecipe(modifiedMatrix, event.getInventory().getLocation().getWorld());
-            if (recipe != null) {
-                event.getInventory().setResult(recipe.getResult());
-                plugin.getLogger().fine("End Stone substitution successful for recipe: " + recipe.getResult().getType());
-            }
-        } catch (Exception e) {
-            // Recipe lookup failed, which is normal for non-matching patterns
-            plugin.getLogger().finest("Recipe lookup failed for End Stone substitution: " + e.getMessage());
-        }
-    }
-
     /**
      * Checks if End Stone can be used as a substitute for a given material
      */
@@ -1,75 +1,65 @@
 package de.tecca.endOverworld.mechanics;
 
 import de.tecca.endOverworld.EndOverworld;
-import org.bukkit.Bukkit;
+import de.tecca.endOverworld.config.Settings;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.entity.FoodLevelChangeEvent;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+
+import java.util.logging.Level;
 
 /**
- * Handles food-related mechanics, particularly Chorus Fruit enhancements
+ * Handles food-related mechanics, particularly Chorus Fruit enhancements.
+ * Bonuses come from the food.bonuses table of the settings snapshot and are applied when the item is eaten.
  */
 public class FoodMechanics implements Listener {
 
     private final EndOverworld plugin;
 
-    // Enhanced chorus fruit values
-    private static final int BONUS_HUNGER = 2;  // Additional hunger points
-    private static final float BONUS_SATURATION = 1.5f;  // Additional saturation
+    // Vanilla chorus fruit nutrition
+    private static final int CHORUS_HUNGER = 4;
+    private static final float CHORUS_SATURATION = 2.4f;
 
     public FoodMechanics(EndOverworld plugin) {
         this.plugin = plugin;
     }
 
     /**
-     * Enhances Chorus Fruit nutrition when consumed
+     * Adds the configured bonus when an enhanced food is eaten.
+     * Runs before vanilla applies the food's own nutrition, which then stacks on top in the same tick.
      */
-    @EventHandler
-    public void onFoodLevelChange(FoodLevelChangeEvent event) {
-        if (!(event.getEntity() instanceof Player)) return;
-
-        Player player = (Player) event.getEntity();
+    @EventHandler(ignoreCancelled = true)
+    public void onItemConsume(PlayerItemConsumeEvent event) {
+        Material food = event.getItem().getType();
+        if (!isEnhancedFood(food)) return;
 
-        // Check if player just consumed chorus fruit
-        if (isConsumingChorusFruit(player)) {
-            enhanceChorusFruit(player);
-        }
+        applyFoodBonuses(event.getPlayer(), food);
     }
 
-    private boolean isConsumingChorusFruit(Player player) {
-        ItemStack mainHand = player.getInventory().getItemInMainHand();
-        ItemStack offHand = player.getInventory().getItemInOffHand();
-
-        return (mainHand.getType() == Material.CHORUS_FRUIT) ||
-                (offHand.getType() == Material.CHORUS_FRUIT);
-    }
+    private void applyFoodBonuses(Player player, Material food) {
+        Settings.Foods foods = plugin.getSettings().getFoods();
+        int hunger = foods.getBonusHunger(food);
+        float saturation = foods.getBonusSaturation(food);
 
-    private void enhanceChorusFruit(Player player) {
-        // Schedule enhancement for next tick (after vanilla consumption)
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            applyChorusFruitBonuses(player);
-        }, 1L);
-    }
-
-    private void applyChorusFruitBonuses(Player player) {
         // Add bonus hunger
-        int currentFood = player.getFoodLevel();
-        int newFood = Math.min(20, currentFood + BONUS_HUNGER);
+        int newFood = Math.min(20, player.getFoodLevel() + hunger);
         player.setFoodLevel(newFood);
 
         // Add bonus saturation
-        float currentSaturation = player.getSaturation();
-        float newSaturation = Math.min(20.0f, currentSaturation + BONUS_SATURATION);
+        float newSaturation = Math.min(20.0f, player.getSaturation() + saturation);
         player.setSaturation(newSaturation);
 
         // Optional: Add subtle particle effect
-        spawnChorusFruitParticles(player);
+        if (food == Material.CHORUS_FRUIT) {
+            spawnChorusFruitParticles(player);
+        }
 
-        plugin.getLogger().fine("Enhanced chorus fruit consumption for " + player.getName() +
-                " - Hunger: +" + BONUS_HUNGER + ", Saturation: +" + BONUS_SATURATION);
+        if (plugin.getLogger().isLoggable(Level.FINE)) {
+            plugin.getLogger().fine("Enhanced " + food + " consumption for " + player.getName() +
+                    " - Hunger: +" + hunger + ", Saturation: +" + saturation);
+        }
     }
 
     private void spawnChorusFruitParticles(Player player) {
@@ -92,29 +82,29 @@ public class FoodMechanics implements Listener {
      * Gets the enhanced nutrition values for Chorus Fruit
      */
     public int getTotalHunger() {
-        return 4 + BONUS_HUNGER; // Vanilla (4) + Bonus (2) = 6 total
+        return CHORUS_HUNGER + getBonusHunger();
     }
 
     public float getTotalSaturation() {
-        return 2.4f + BONUS_SATURATION; // Vanilla (2.4) + Bonus (1.5) = 3.9 total
+        return CHORUS_SATURATION + getBonusSaturation();
     }
 
     /**
      * Gets bonus nutrition values
      */
     public int getBonusHunger() {
-        return BONUS_HUNGER;
+        return plugin.getSettings().getFoods().getBonusHunger(Material.CHORUS_FRUIT);
     }
 
     public float getBonusSaturation() {
-        return BONUS_SATURATION;
+        return plugin.getSettings().getFoods().getBonusSaturation(Material.CHORUS_FRUIT);
     }
 
     /**
      * Checks if a food item is enhanced by this plugin
      */
     public boolean isEnhancedFood(Material material) {
-        return material == Material.CHORUS_FRUIT;
+        return plugin.getSettings().getFoods().isEnhanced(material);
     }
 
     /**
@@ -122,7 +112,7 @@ public class FoodMechanics implements Listener {
      */
     public double getFoodEnhancementFactor(Material material) {
         if (material == Material.CHORUS_FRUIT) {
-            return (double) getTotalHunger() / 4.0; // 6/4 = 1.5x enhancement
+            return (double) getTotalHunger() / CHORUS_HUNGER;
         }
         return 1.0; // No enhancement
     }
@@ -131,7 +121,7 @@ public class FoodMechanics implements Listener {
      * Manually applies chorus fruit bonuses (for testing or special cases)
      */
     public void applyChorusFruitBonus(Player player) {
-        applyChorusFruitBonuses(player);
+        applyFoodBonuses(player, Material.CHORUS_FRUIT);
         player.sendMessage("§dYou feel nourished by the mystical chorus fruit!");
     }
 
@@ -141,7 +131,7 @@ public class FoodMechanics implements Listener {
     public String getFoodMechanicsInfo() {
         StringBuilder info = new StringBuilder();
         info.append("=== Food Mechanics Information ===\n");
-        info.append("Enhanced Foods: Chorus Fruit\n");
+        info.append("Enhanced Foods: ").append(java.util.Arrays.toString(getEnhancedFoods())).append("\n");
         info.append("Chorus Fruit Nutrition:\n");
         info.append("  - Total Hunger: ").append(getTotalHunger()).append(" (vanilla: 4)\n");
         info.append("  - Total Saturation: ").append(getTotalSaturation()).append(" (vanilla: 2.4)\n");
@@ -156,15 +146,14 @@ public class FoodMechanics implements Listener {
      * Validates food enhancement is working
      */
     public boolean validateFoodEnhancement() {
-        return BONUS_HUNGER > 0 && BONUS_SATURATION > 0 &&
-                getTotalHunger() > 4 && getTotalSaturation() > 2.4f;
+        return getBonusHunger() > 0 && getBonusSaturation() > 0;
     }
 
     /**
      * Gets all enhanced food types
      */
     public Material[] getEnhancedFoods() {
-        return new Material[] { Material.CHORUS_FRUIT };
+        return plugin.getSettings().getFoods().getEnhancedFoods();
     }
 
     /**
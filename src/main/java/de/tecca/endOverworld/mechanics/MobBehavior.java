@@ -3,122 +3,174 @@ package de.tecca.endOverworld.mechanics;
 import de.tecca.endOverworld.EndOverworld;
 import de.tecca.endOverworld.entities.TradingEnderman;
 import de.tecca.endOverworld.trading.TradingManager;
+import de.tecca.endOverworld.world.ChunkBucketIndex;
+import de.tecca.endOverworld.world.EndCityRegionIndex;
+import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.entity.*;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.event.entity.EntityDeathEvent;
-import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
 import org.bukkit.event.entity.EntityTargetEvent;
 import org.bukkit.event.entity.EntityTargetLivingEntityEvent;
-import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.player.PlayerInteractEntityEvent;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
 
 /**
- * Handles mob behavior modifications and trading interactions
+ * Handles mob behavior modifications. Trading interactions are handled by TradingManager.
  */
 public class MobBehavior implements Listener {
 
     private final EndOverworld plugin;
     private final TradingManager tradingManager;
 
+    // Shulkers and Endermen that may guard End City chests, maintained from entity events
+    private final ChunkBucketIndex<Creature> guardIndex = new ChunkBucketIndex<>();
+    private final Location guardScratch = new Location(null, 0, 0, 0);
+    private BukkitTask guardRefreshTimer;
+
+    private static final double GUARD_RANGE_XZ = 15.0;
+    private static final double GUARD_RANGE_Y = 10.0;
+    private static final int GUARD_REFRESHES_PER_TICK = 16;
+    private static final double MAX_GUARD_SPEED = 0.5; // Walking, blocks per tick - teleports fire events
+    private static final int CITY_SCAN_RADIUS = 5;
+
     public MobBehavior(EndOverworld plugin, TradingManager tradingManager) {
         this.plugin = plugin;
         this.tradingManager = tradingManager;
     }
 
-    // === ENDERMAN BEHAVIOR ===
-
     /**
-     * Spawns Trading Endermen with configured chance
+     * Starts refreshing guard buckets, once the feature is registered. Walking fires no event, so a fixed
+     * number of guards is moved to their current chunk each tick.
      */
-    @EventHandler
-    public void onEntitySpawn(EntitySpawnEvent event) {
-        if (event.getEntity() instanceof Enderman) {
-            Enderman enderman = (Enderman) event.getEntity();
-
-            // Check spawn chance for Trading Enderman
-            double spawnChance = tradingManager.getSpawnChance();
-            if (Math.random() < spawnChance) {
-                tradingManager.createTradingEnderman(enderman);
-            }
-        }
+    public void start() {
+        guardRefreshTimer = Bukkit.getScheduler().runTaskTimer(plugin, () ->
+                guardIndex.refreshNext(GUARD_REFRESHES_PER_TICK,
+                        guard -> guard.isValid() ? guard.getLocation(guardScratch) : null), 1L, 1L);
     }
 
-    /**
-     * Removes eye contact aggression from Endermen
-     */
-    @EventHandler
-    public void onEntityTarget(EntityTargetEvent event) {
-        if (!(event.getEntity() instanceof Enderman)) return;
+    public void shutdown() {
+        if (guardRefreshTimer != null) guardRefreshTimer.cancel();
+        guardIndex.clear();
+    }
 
-        // Skip for creative mode players
-        if (event.getTarget() instanceof Player) {
-            Player player = (Player) event.getTarget();
-            if (player.getGameMode() == GameMode.CREATIVE) return;
+    // === GUARD INDEX ===
+
+    private static boolean isGuardType(EntityType type) {
+        return type == EntityType.SHULKER || type == EntityType.ENDERMAN;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGuardSpawn(CreatureSpawnEvent event) {
+        if (isGuardType(event.getEntityType())) {
+            guardIndex.update(event.getEntity(), event.getLocation());
         }
+    }
 
-        // Only allow targeting if directly attacked
-        if (event.getReason() != EntityTargetEvent.TargetReason.TARGET_ATTACKED_ENTITY) {
-            event.setCancelled(true);
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onGuardsLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (isGuardType(entity.getType())) {
+                guardIndex.update((Creature) entity, entity.getLocation(guardScratch));
+            }
         }
     }
 
-    /**
-     * Handles Trading Enderman interactions
-     */
-    @EventHandler
-    public void onPlayerInteractEntity(PlayerInteractEntityEvent event) {
-        if (!(event.getRightClicked() instanceof Enderman)) return;
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onGuardsUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (isGuardType(entity.getType())) {
+                guardIndex.remove((Creature) entity);
+            }
+        }
+    }
 
-        Enderman enderman = (Enderman) event.getRightClicked();
-        Player player = event.getPlayer();
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onGuardRemove(EntityRemoveEvent event) {
+        if (isGuardType(event.getEntityType())) {
+            guardIndex.remove((Creature) event.getEntity());
+        }
+    }
 
-        if (TradingEnderman.isTradingEnderman(enderman)) {
-            event.setCancelled(true);
-            tradingManager.openTradingMenu(player, enderman);
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGuardTeleport(EntityTeleportEvent event) {
+        if (event.getTo() != null && isGuardType(event.getEntityType())) {
+            guardIndex.update((Creature) event.getEntity(), event.getTo());
         }
     }
 
     /**
-     * Handles Trading Enderman defense when attacked
+     * Indexes guards in chunks that were already loaded before the listener was registered
      */
-    @EventHandler
-    public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
-        if (!(event.getEntity() instanceof Enderman && event.getDamager() instanceof Player)) return;
+    public void indexLoadedGuards() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Entity entity : world.getEntitiesByClasses(Shulker.class, Enderman.class)) {
+                guardIndex.update((Creature) entity, entity.getLocation(guardScratch));
+            }
+        }
+    }
 
-        Enderman enderman = (Enderman) event.getEntity();
-        Player player = (Player) event.getDamager();
+    // === END CITY REGIONS ===
 
-        // Skip defense mechanics for creative mode players
-        if (player.getGameMode() == GameMode.CREATIVE) return;
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        plugin.getStructureManager().getRegionIndex()
+                .forgetOutside(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+    }
 
-        if (TradingEnderman.isTradingEnderman(enderman)) {
-            tradingManager.handleTraderAttacked(enderman, player);
+    /**
+     * Drops remembered negative city checks near placed city blocks, so chests next to new purpur are re-scanned
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCityBlockPlace(BlockPlaceEvent event) {
+        if (!isCityScanMaterial(event.getBlockPlaced().getType()) ||
+                !plugin.getWorldManager().isEndWorld(event.getBlockPlaced().getWorld())) return;
+
+        World world = event.getBlockPlaced().getWorld();
+        int x = event.getBlockPlaced().getX(), z = event.getBlockPlaced().getZ();
+        EndCityRegionIndex regions = plugin.getStructureManager().getRegionIndex();
+
+        for (int chunkX = (x - CITY_SCAN_RADIUS) >> 4; chunkX <= (x + CITY_SCAN_RADIUS) >> 4; chunkX++) {
+            for (int chunkZ = (z - CITY_SCAN_RADIUS) >> 4; chunkZ <= (z + CITY_SCAN_RADIUS) >> 4; chunkZ++) {
+                regions.forgetOutside(world, chunkX, chunkZ);
+            }
         }
     }
 
+    // === ENDERMAN BEHAVIOR ===
+
     /**
-     * Handles Trading Enderman death drops
+     * Removes eye contact aggression from Endermen
      */
     @EventHandler
-    public void onEntityDeath(EntityDeathEvent event) {
+    public void onEntityTarget(EntityTargetEvent event) {
         if (!(event.getEntity() instanceof Enderman)) return;
 
-        Enderman enderman = (Enderman) event.getEntity();
-
-        if (TradingEnderman.isTradingEnderman(enderman)) {
-            // Clear default drops to prevent duplication
-            event.getDrops().clear();
-            event.setDroppedExp(0);
+        // Skip for creative mode players
+        if (event.getTarget() instanceof Player) {
+            Player player = (Player) event.getTarget();
+            if (player.getGameMode() == GameMode.CREATIVE) return;
+        }
 
-            // Handle through trading manager
-            tradingManager.handleTraderDeath(enderman);
+        // Only allow targeting if directly attacked
+        if (event.getReason() != EntityTargetEvent.TargetReason.TARGET_ATTACKED_ENTITY) {
+            event.setCancelled(true);
         }
     }
 
@@ -131,26 +183,19 @@ public class MobBehavior implements Listener {
     public void onMobTargetVillager(EntityTargetLivingEntityEvent event) {
         if (!(event.getTarget() instanceof Villager)) return;
 
-        Entity attacker = event.getEntity();
+        EntityType attackerType = event.getEntityType();
 
         // Cancel targeting if it's a hostile mob
-        if (isHostileMob(attacker)) {
+        if (isHostileMob(attackerType)) {
             event.setCancelled(true);
-            plugin.getLogger().finest("Prevented " + attacker.getType() + " from targeting villager");
+            if (plugin.getLogger().isLoggable(Level.FINEST)) {
+                plugin.getLogger().finest("Prevented " + attackerType + " from targeting villager");
+            }
         }
     }
 
-    private boolean isHostileMob(Entity entity) {
-        return entity instanceof Zombie || entity instanceof Skeleton || entity instanceof Creeper ||
-                entity instanceof Spider || entity instanceof Witch || entity instanceof Pillager ||
-                entity instanceof Vindicator || entity instanceof Evoker || entity instanceof Phantom ||
-                entity instanceof Blaze || entity instanceof Ghast || entity instanceof Wither ||
-                entity instanceof WitherSkeleton || entity instanceof Husk || entity instanceof Stray ||
-                entity instanceof Drowned || entity instanceof Slime || entity instanceof MagmaCube ||
-                entity instanceof Endermite || entity instanceof Silverfish || entity instanceof Guardian ||
-                entity instanceof ElderGuardian || entity instanceof Shulker || entity instanceof Vex ||
-                entity instanceof Ravager || entity instanceof Piglin || entity instanceof PiglinBrute ||
-                entity instanceof Hoglin || entity instanceof Zoglin;
+    private boolean isHostileMob(EntityType type) {
+        return plugin.getSettings().getVillagers().isHostile(type);
     }
 
     // === END CITY GUARDS ===
@@ -162,7 +207,8 @@ public class MobBehavior implements Listener {
     public void onPlayerInteract(org.bukkit.event.player.PlayerInteractEvent event) {
         if (event.getAction() != org.bukkit.event.block.Action.RIGHT_CLICK_BLOCK ||
                 event.getClickedBlock() == null ||
-                event.getClickedBlock().getType() != Material.CHEST) return;
+                event.getClickedBlock().getType() != Material.CHEST ||
+                !plugin.getWorldManager().isEndWorld(event.getClickedBlock().getWorld())) return;
 
         Player player = event.getPlayer();
 
@@ -177,14 +223,27 @@ public class MobBehavior implements Listener {
     }
 
     private boolean isInEndCity(Location location) {
-        for (int x = -5; x <= 5; x++) {
-            for (int y = -5; y <= 5; y++) {
-                for (int z = -5; z <= 5; z++) {
-                    Location checkLoc = location.clone().add(x, y, z);
-                    Material block = checkLoc.getBlock().getType();
-                    if (block == Material.PURPUR_BLOCK ||
-                            block == Material.PURPUR_PILLAR ||
-                            block == Material.END_ROD) {
+        World world = location.getWorld();
+        int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+
+        EndCityRegionIndex regions = plugin.getStructureManager().getRegionIndex();
+        if (regions.contains(world, x, y, z)) return true;
+        if (regions.isKnownOutside(world, x, y, z)) return false;
+
+        // Cities generated before the detectors ran are scanned once, and the result is remembered
+        if (scanForCityBlocks(world, x, y, z)) {
+            regions.recordAround(location, CITY_SCAN_RADIUS, CITY_SCAN_RADIUS);
+            return true;
+        }
+        regions.markOutside(world, x, y, z);
+        return false;
+    }
+
+    private boolean scanForCityBlocks(World world, int centerX, int centerY, int centerZ) {
+        for (int x = centerX - CITY_SCAN_RADIUS; x <= centerX + CITY_SCAN_RADIUS; x++) {
+            for (int y = centerY - CITY_SCAN_RADIUS; y <= centerY + CITY_SCAN_RADIUS; y++) {
+                for (int z = centerZ - CITY_SCAN_RADIUS; z <= centerZ + CITY_SCAN_RADIUS; z++) {
+                    if (isCityScanMaterial(world.getBlockAt(x, y, z).getType())) {
                         return true;
                     }
                 }
@@ -193,15 +252,38 @@ public class MobBehavior implements Listener {
         return false;
     }
 
+    private static boolean isCityScanMaterial(Material material) {
+        return material == Material.PURPUR_BLOCK ||
+                material == Material.PURPUR_PILLAR ||
+                material == Material.END_ROD;
+    }
+
     private void activateEndCityGuards(Player player, Location chestLocation) {
-        // Find nearby Shulkers and Endermen to make them aggressive
-        for (Entity entity : chestLocation.getWorld().getNearbyEntities(chestLocation, 15, 10, 15)) {
-            if (entity instanceof Shulker ||
-                    (entity instanceof Enderman && !TradingEnderman.isTradingEnderman((Enderman) entity))) {
+        World world = chestLocation.getWorld();
+
+        // Buckets may lag behind walking guards by up to one refresh cycle, so the search is padded
+        // by how far a guard walks in two cycles and the exact range is checked on live locations
+        double padding = MAX_GUARD_SPEED * 2 * guardIndex.getRefreshCycle(GUARD_REFRESHES_PER_TICK);
+        List<Creature> guards = new ArrayList<>();
+        guardIndex.forEachNear(world, chestLocation.getX(), chestLocation.getZ(),
+                GUARD_RANGE_XZ + padding, guards::add);
+
+        for (Creature guard : guards) {
+            Location location = guard.getLocation(guardScratch);
+            if (!guard.isValid() || location.getWorld() != world) continue;
+
+            // Queries keep the buckets they touch current
+            guardIndex.update(guard, location);
+
+            if (Math.abs(location.getX() - chestLocation.getX()) > GUARD_RANGE_XZ ||
+                    Math.abs(location.getY() - chestLocation.getY()) > GUARD_RANGE_Y ||
+                    Math.abs(location.getZ() - chestLocation.getZ()) > GUARD_RANGE_XZ) {
+                continue;
+            }
 
-                if (entity instanceof Creature) {
-                    ((Creature) entity).setTarget(player);
-                }
+            if (guard instanceof Shulker ||
+                    !TradingEnderman.isTradingEnderman((Enderman) guard)) {
+                guard.setTarget(player);
             }
         }
 
@@ -212,32 +294,6 @@ public class MobBehavior implements Listener {
         plugin.getLogger().info("Activated End city guards for " + player.getName() + " at " + chestLocation);
     }
 
-    // === TRADING SYSTEM INTEGRATION ===
-
-    /**
-     * Handles trading menu clicks
-     */
-    @EventHandler
-    public void onInventoryClick(InventoryClickEvent event) {
-        if (!event.getView().getTitle().startsWith("§5Trading Enderman")) return;
-
-        event.setCancelled(true);
-
-        if (event.getCurrentItem() == null ||
-                event.getCurrentItem().getType() == Material.AIR ||
-                event.getCurrentItem().getType() == Material.BOOK) {
-            return;
-        }
-
-        Player player = (Player) event.getWhoClicked();
-        String traderID = tradingManager.getPlayerCurrentTraderID(player);
-
-        if (traderID != null) {
-            // Allow trading for all game modes
-            tradingManager.processTrade(player, event.getCurrentItem(), traderID);
-        }
-    }
-
     // === UTILITY METHODS ===
 
     /**
@@ -279,18 +335,10 @@ public class MobBehavior implements Listener {
     }
 
     /**
-     * Gets all hostile mob types that are restricted
+     * Gets all hostile mob types that are restricted, from villagers.hostile-mobs
      */
-    public Class<?>[] getHostileMobTypes() {
-        return new Class<?>[] {
-                Zombie.class, Skeleton.class, Creeper.class, Spider.class,
-                Witch.class, Pillager.class, Vindicator.class, Evoker.class,
-                Phantom.class, Blaze.class, Ghast.class, Wither.class,
-                WitherSkeleton.class, Husk.class, Stray.class, Drowned.class,
-                Slime.class, MagmaCube.class, Endermite.class, Silverfish.class,
-                Guardian.class, ElderGuardian.class, Shulker.class, Vex.class,
-                Ravager.class, Piglin.class, PiglinBrute.class, Hoglin.class, Zoglin.class
-        };
+    public Set<EntityType> getHostileMobTypes() {
+        return plugin.getSettings().getVillagers().getHostileMobs();
     }
 
     /**
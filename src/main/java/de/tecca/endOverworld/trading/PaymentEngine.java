@@ -0,0 +1,208 @@
+package de.tecca.endOverworld.trading;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Pays for trades with the currencies configured in the economy section.
+ * A payment is planned with a single pass over the player's inventory and only committed once it is
+ * known to succeed, so a trade either takes the full price or nothing. Overpayment with a high-value
+ * currency is refunded in the primary currency.
+ */
+public class PaymentEngine {
+
+    private final Material primaryCurrency;
+
+    // Value of one item in primary currency units, indexed by Material ordinal (0 = not a currency)
+    private final int[] currencyValues;
+
+    // Currencies sorted by ascending value, cheapest is spent first
+    private final Material[] spendOrder;
+
+    private PaymentEngine(Material primaryCurrency, int[] currencyValues, Material[] spendOrder) {
+        this.primaryCurrency = primaryCurrency;
+        this.currencyValues = currencyValues;
+        this.spendOrder = spendOrder;
+    }
+
+    /**
+     * Builds the currency table from economy.primary_currency and economy.secondary_currencies
+     */
+    public static PaymentEngine fromConfig(FileConfiguration config, Logger logger) {
+        Material primary = Material.matchMaterial(config.getString("economy.primary_currency", "CHORUS_FRUIT"));
+        if (primary == null) {
+            logger.warning("Invalid economy.primary_currency, using CHORUS_FRUIT");
+            primary = Material.CHORUS_FRUIT;
+        }
+
+        int[] values = new int[Material.values().length];
+        List<Material> currencies = new ArrayList<>();
+        values[primary.ordinal()] = 1;
+        currencies.add(primary);
+
+        ConfigurationSection secondary = config.getConfigurationSection("economy.secondary_currencies");
+        if (secondary != null) {
+            for (String key : secondary.getKeys(false)) {
+                Material material = Material.matchMaterial(key);
+                int rate = secondary.getInt(key);
+                if (material == null || rate <= 0 || material == primary) {
+                    logger.warning("Invalid secondary currency: " + key);
+                    continue;
+                }
+                values[material.ordinal()] = rate;
+                currencies.add(material);
+            }
+        }
+
+        Material[] spendOrder = currencies.toArray(new Material[0]);
+        Arrays.sort(spendOrder, (a, b) -> Integer.compare(values[a.ordinal()], values[b.ordinal()]));
+        return new PaymentEngine(primary, values, spendOrder);
+    }
+
+    public boolean isCurrency(Material material) {
+        return currencyValues[material.ordinal()] > 0;
+    }
+
+    public Material getPrimaryCurrency() { return primaryCurrency; }
+
+    /**
+     * Plans paying amount x material from the inventory.
+     * Currency prices can be paid with any mix of currencies by value, other materials only with themselves.
+     *
+     * @return the plan, or null if the player cannot afford it
+     */
+    public Payment plan(PlayerInventory inventory, Material material, int amount) {
+        ItemStack[] contents = inventory.getStorageContents();
+
+        // Single pass: slots and totals per payable material
+        int[][] slots = new int[spendOrder.length][];
+        int[] slotCounts = new int[spendOrder.length];
+        int[] available = new int[spendOrder.length];
+        boolean byValue = isCurrency(material);
+
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null) continue;
+
+            int type = byValue ? indexOf(item.getType()) : (item.getType() == material ? 0 : -1);
+            // Renamed or enchanted items are never taken as payment
+            if (type < 0 || item.hasItemMeta()) continue;
+
+            if (slots[type] == null) slots[type] = new int[contents.length];
+            slots[type][slotCounts[type]++] = slot;
+            available[type] += item.getAmount();
+        }
+
+        Payment payment = new Payment(inventory, contents);
+        if (!byValue) {
+            return available[0] >= amount ? payment.take(slots[0], slotCounts[0], amount) : null;
+        }
+
+        long remaining = (long) amount * currencyValues[material.ordinal()];
+
+        // Cheapest first, without overpaying
+        for (int i = 0; i < spendOrder.length && remaining > 0; i++) {
+            int value = currencyValues[spendOrder[i].ordinal()];
+            int units = (int) Math.min(available[i], remaining / value);
+            if (units > 0) {
+                payment.take(slots[i], slotCounts[i], units);
+                available[i] -= units;
+                remaining -= (long) units * value;
+            }
+        }
+
+        // Cover the rest with the cheapest currency left, change is paid back in primary currency
+        for (int i = 0; i < spendOrder.length && remaining > 0; i++) {
+            if (available[i] == 0) continue;
+
+            int value = currencyValues[spendOrder[i].ordinal()];
+            int units = (int) ((remaining + value - 1) / value);
+            if (units > available[i]) continue;
+
+            payment.take(slots[i], slotCounts[i], units);
+            payment.change = (int) ((long) units * value - remaining);
+            remaining = 0;
+        }
+
+        return remaining > 0 ? null : payment;
+    }
+
+    private int indexOf(Material material) {
+        if (currencyValues[material.ordinal()] == 0) return -1;
+        for (int i = 0; i < spendOrder.length; i++) {
+            if (spendOrder[i] == material) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Planned removals, applied together by commit()
+     */
+    public class Payment {
+        private final PlayerInventory inventory;
+        private final ItemStack[] contents;
+        private final int[] removeAmounts;
+        private int change;
+
+        private Payment(PlayerInventory inventory, ItemStack[] contents) {
+            this.inventory = inventory;
+            this.contents = contents;
+            this.removeAmounts = new int[contents.length];
+        }
+
+        private Payment take(int[] slots, int slotCount, int units) {
+            for (int i = 0; i < slotCount && units > 0; i++) {
+                int slot = slots[i];
+                int taken = Math.min(units, contents[slot].getAmount() - removeAmounts[slot]);
+                removeAmounts[slot] += taken;
+                units -= taken;
+            }
+            return this;
+        }
+
+        /**
+         * Removes the planned stacks and pays out change. Must run in the same tick as plan().
+         */
+        public void commit() {
+            for (int slot = 0; slot < removeAmounts.length; slot++) {
+                if (removeAmounts[slot] == 0) continue;
+
+                ItemStack item = contents[slot];
+                int left = item.getAmount() - removeAmounts[slot];
+                inventory.setItem(slot, left > 0 ? withAmount(item, left) : null);
+            }
+
+            if (change > 0) {
+                giveOrDrop(inventory, new ItemStack(primaryCurrency, change));
+            }
+        }
+
+        private ItemStack withAmount(ItemStack item, int amount) {
+            item.setAmount(amount);
+            return item;
+        }
+
+        public int getChange() { return change; }
+    }
+
+    /**
+     * Adds an item to the inventory, dropping whatever does not fit at the holder's feet
+     */
+    static void giveOrDrop(PlayerInventory inventory, ItemStack item) {
+        HumanEntity holder = inventory.getHolder();
+        for (ItemStack leftover : inventory.addItem(item).values()) {
+            if (holder != null) {
+                holder.getWorld().dropItemNaturally(holder.getLocation(), leftover);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package de.tecca.endOverworld.trading;
+
+import de.tecca.endOverworld.EndOverworld;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Demand-driven prices for the economy.dynamic_pricing section.
+ * Trades only bump a LongAdder per offer. A background tick decays the demand, recomputes prices and
+ * publishes them as an immutable PriceSnapshot, which menus read through a volatile field without locking.
+ */
+public class PricingService {
+
+    private final EndOverworld plugin;
+
+    // Cached configuration
+    private boolean enabled;
+    private double priceVariance;
+    private double demandFactor;
+    private double decayFactor;
+
+    private volatile DemandTable table;
+    private volatile PriceSnapshot snapshot;
+    private long updateInterval;
+    private boolean started;
+    private BukkitTask decayTask;
+
+    public PricingService(EndOverworld plugin, TraderSettings settings, TradeCatalog catalog) {
+        this.plugin = plugin;
+        reloadSettings(settings, catalog);
+    }
+
+    /**
+     * Applies the dynamic pricing settings and resets demand for a (possibly new) catalog. Main thread only.
+     */
+    public void reloadSettings(TraderSettings settings, TradeCatalog catalog) {
+        this.enabled = settings.isDynamicPricing();
+        this.priceVariance = settings.getPriceVariance();
+        this.demandFactor = settings.getDemandFactor();
+        this.decayFactor = settings.getDecayFactor();
+
+        this.table = new DemandTable(catalog);
+        this.snapshot = PriceSnapshot.base(catalog, snapshot == null ? 0 : snapshot.sequence + 1);
+
+        this.updateInterval = settings.getPriceUpdateInterval();
+        scheduleDecay();
+    }
+
+    /**
+     * Starts the price decay task, if dynamic pricing is enabled
+     */
+    public void start() {
+        started = true;
+        scheduleDecay();
+    }
+
+    private void scheduleDecay() {
+        if (decayTask != null) {
+            decayTask.cancel();
+            decayTask = null;
+        }
+
+        if (started && enabled) {
+            decayTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::updatePrices, updateInterval, updateInterval);
+        }
+    }
+
+    /**
+     * Records one completed trade of a catalog offer. Lock-free, safe from any thread.
+     */
+    public void recordTrade(TradeCatalog catalog, int offerIndex) {
+        DemandTable current = table;
+        if (!enabled || current.catalog != catalog || offerIndex < 0 || offerIndex >= current.counters.length) return;
+        current.counters[offerIndex].increment();
+    }
+
+    /**
+     * Gets the latest published prices
+     */
+    public PriceSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Runs asynchronously, only ever on one thread at a time
+    private void updatePrices() {
+        DemandTable current = table;
+        List<TradeOffer> offers = current.catalog.getOffers();
+        int size = offers.size();
+        if (size == 0) return;
+
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            current.demand[i] = current.demand[i] * decayFactor + current.counters[i].sumThenReset();
+            total += current.demand[i];
+        }
+        double mean = total / size;
+
+        PriceSnapshot previous = snapshot;
+        int[] prices = new int[size];
+        boolean changed = previous.catalogVersion != current.catalog.getVersion();
+
+        for (int i = 0; i < size; i++) {
+            // Offers traded more than average get dearer, neglected ones cheaper, within the variance
+            double shift = Math.max(-priceVariance, Math.min(priceVariance, demandFactor * (current.demand[i] - mean)));
+            prices[i] = Math.max(1, (int) Math.round(offers.get(i).getInputAmount() * (1.0 + shift)));
+            changed = changed || prices[i] != previous.prices[i];
+        }
+
+        // Only publish when something moved, so menu templates stay cached
+        if (changed && table == current) {
+            snapshot = new PriceSnapshot(current.catalog.getVersion(), previous.sequence + 1, prices);
+        }
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public void shutdown() {
+        if (decayTask != null) {
+            decayTask.cancel();
+            decayTask = null;
+        }
+    }
+
+    /**
+     * Demand counters for one catalog. Counters are written by trades, demand only by the update tick.
+     */
+    private static final class DemandTable {
+        private final TradeCatalog catalog;
+        private final LongAdder[] counters;
+        private final double[] demand;
+
+        private DemandTable(TradeCatalog catalog) {
+            this.catalog = catalog;
+            this.counters = new LongAdder[catalog.size()];
+            this.demand = new double[catalog.size()];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Immutable input prices per catalog offer index
+     */
+    public static final class PriceSnapshot {
+        private final int catalogVersion;
+        private final int sequence;
+        private final int[] prices;
+
+        private PriceSnapshot(int catalogVersion, int sequence, int[] prices) {
+            this.catalogVersion = catalogVersion;
+            this.sequence = sequence;
+            this.prices = prices;
+        }
+
+        private static PriceSnapshot base(TradeCatalog catalog, int sequence) {
+            List<TradeOffer> offers = catalog.getOffers();
+            int[] prices = new int[offers.size()];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = offers.get(i).getInputAmount();
+            }
+            return new PriceSnapshot(catalog.getVersion(), sequence, prices);
+        }
+
+        /**
+         * Gets the current price of an offer, falling back to its base amount for other catalog versions
+         */
+        public int getPrice(TradeCatalog catalog, int offerIndex) {
+            if (catalog.getVersion() != catalogVersion || offerIndex < 0 || offerIndex >= prices.length) {
+                return catalog.getOffers().get(offerIndex).getInputAmount();
+            }
+            return prices[offerIndex];
+        }
+
+        public int getSequence() { return sequence; }
+    }
+}
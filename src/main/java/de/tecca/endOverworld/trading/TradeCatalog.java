@@ -0,0 +1,138 @@
+package de.tecca.endOverworld.trading;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable set of trade offers parsed once from trader_config.yml.
+ * Offers are sorted by required level, so the offers unlocked at a level are always a prefix of the list
+ * and every TraderData can share one catalog instead of parsing its own copy.
+ * The same parse result carries the invalid entries, so validation never parses the offers again.
+ */
+public final class TradeCatalog {
+
+    // Catalogs may be parsed off the main thread, versions only need to be unique per server run
+    private static final AtomicInteger NEXT_VERSION = new AtomicInteger(1);
+
+    private final int version;
+    private final int maxLevel;
+    private final int tradesPerLevel;
+    private final List<TradeOffer> offers;
+    private final List<String> invalidEntries;
+
+    // unlockedCounts[level] = number of offers with requiredLevel <= level
+    private final int[] unlockedCounts;
+
+    private TradeCatalog(int version, int maxLevel, int tradesPerLevel, List<TradeOffer> offers,
+                         List<String> invalidEntries) {
+        this.version = version;
+        this.maxLevel = maxLevel;
+        this.tradesPerLevel = tradesPerLevel;
+        this.offers = Collections.unmodifiableList(offers);
+        this.invalidEntries = Collections.unmodifiableList(invalidEntries);
+        this.unlockedCounts = new int[maxLevel + 1];
+
+        int count = 0;
+        for (int level = 0; level <= maxLevel; level++) {
+            while (count < offers.size() && offers.get(count).getRequiredLevel() <= level) {
+                count++;
+            }
+            unlockedCounts[level] = count;
+        }
+    }
+
+    /**
+     * Parses trade_offers and custom_trades under a new version. Invalid entries are skipped and
+     * listed in getInvalidEntries(). Touches no world state, so it is safe to call asynchronously.
+     */
+    public static TradeCatalog parse(FileConfiguration config) {
+        int maxLevel = Math.max(1, config.getInt("trader_settings.max_level", 5));
+        int tradesPerLevel = config.getInt("trader_settings.trades_per_level", 3);
+
+        Map<String, String> rarityColors = new HashMap<>();
+        List<TradeOffer> offers = new ArrayList<>();
+        List<String> invalidEntries = new ArrayList<>();
+        parseOffers(config, "trade_offers", "Invalid trade offer: ", rarityColors, offers, invalidEntries);
+        parseOffers(config, "custom_trades", "Invalid custom trade: ", rarityColors, offers, invalidEntries);
+
+        // Stable sort keeps config order within a level
+        offers.sort(Comparator.comparingInt(TradeOffer::getRequiredLevel));
+
+        return new TradeCatalog(NEXT_VERSION.getAndIncrement(), maxLevel, tradesPerLevel, offers, invalidEntries);
+    }
+
+    private static void parseOffers(FileConfiguration config, String path, String invalidPrefix,
+                                    Map<String, String> rarityColors, List<TradeOffer> offers,
+                                    List<String> invalidEntries) {
+        for (String tradeString : config.getStringList(path)) {
+            TradeOffer offer = parseTradeString(tradeString, config, rarityColors);
+            if (offer != null) {
+                offers.add(offer);
+            } else {
+                invalidEntries.add(invalidPrefix + tradeString);
+            }
+        }
+    }
+
+    private static TradeOffer parseTradeString(String tradeString, FileConfiguration config,
+                                               Map<String, String> rarityColors) {
+        try {
+            // Format: input_material:input_amount:output_material:output_amount:display_name:rarity:required_level
+            String[] parts = tradeString.split(":");
+            if (parts.length != 7) {
+                return null;
+            }
+
+            Material inputMaterial = Material.valueOf(parts[0].toUpperCase());
+            int inputAmount = Integer.parseInt(parts[1]);
+            Material outputMaterial = Material.valueOf(parts[2].toUpperCase());
+            int outputAmount = Integer.parseInt(parts[3]);
+            String displayName = parts[4];
+            String rarity = parts[5];
+            int requiredLevel = Integer.parseInt(parts[6]);
+            if (inputAmount <= 0 || outputAmount <= 0 || requiredLevel <= 0) {
+                return null;
+            }
+
+            String rarityColor = rarityColors.computeIfAbsent(rarity,
+                    key -> config.getString("rarity_colors." + key, "§7"));
+
+            return new TradeOffer(inputMaterial, inputAmount, outputMaterial, outputAmount,
+                    displayName, rarity, requiredLevel, rarityColor);
+
+        } catch (Exception e) {
+            // Invalid trade string, skip it
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of offers unlocked at a level
+     */
+    public int getUnlockedCount(int level) {
+        if (level < 0) return 0;
+        return unlockedCounts[Math.min(level, maxLevel)];
+    }
+
+    /**
+     * Gets the offers unlocked at a level as a read-only view, no copy is made
+     */
+    public List<TradeOffer> getUnlockedOffers(int level) {
+        return offers.subList(0, getUnlockedCount(level));
+    }
+
+    public int getVersion() { return version; }
+    public int getMaxLevel() { return maxLevel; }
+    public int getTradesPerLevel() { return tradesPerLevel; }
+    public List<TradeOffer> getOffers() { return offers; }
+    public List<String> getInvalidEntries() { return invalidEntries; }
+    public int size() { return offers.size(); }
+}
@@ -0,0 +1,98 @@
+package de.tecca.endOverworld.trading;
+
+import de.tecca.endOverworld.entities.EntityKeys;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-rendered trading menu contents, one template per (catalog version, trader level), rendered with the
+ * current price snapshot and re-rendered when a new one is published.
+ * Templates are never modified after creation - Inventory.setContents copies the stacks,
+ * so all traders of a level share one template and only the info book is rendered per open.
+ */
+public class TradeMenuCache {
+
+    public static final int MENU_SIZE = 54;
+    public static final int INFO_SLOT = 4;
+    public static final int FIRST_OFFER_SLOT = 9;
+    public static final int MAX_OFFERS = MENU_SIZE - FIRST_OFFER_SLOT;
+
+    private final Map<Long, Template> templates = new HashMap<>();
+
+    /**
+     * Gets the shared template for a level, rendering it on first use or after a price change.
+     * Callers must not modify it.
+     */
+    public ItemStack[] getTemplate(TradeCatalog catalog, int level, PricingService.PriceSnapshot prices) {
+        long key = ((long) catalog.getVersion() << 32) | (level & 0xFFFFFFFFL);
+
+        Template template = templates.get(key);
+        if (template == null || template.priceSequence != prices.getSequence()) {
+            template = new Template(prices.getSequence(), render(catalog, level, prices));
+            templates.put(key, template);
+        }
+        return template.contents;
+    }
+
+    private ItemStack[] render(TradeCatalog catalog, int level, PricingService.PriceSnapshot prices) {
+        ItemStack[] contents = new ItemStack[MENU_SIZE];
+        List<TradeOffer> offers = catalog.getUnlockedOffers(level);
+
+        for (int i = 0; i < offers.size() && i < MAX_OFFERS; i++) {
+            contents[FIRST_OFFER_SLOT + i] = createTradeItem(offers.get(i), i, catalog.getVersion(),
+                    prices.getPrice(catalog, i));
+        }
+        return contents;
+    }
+
+    private ItemStack createTradeItem(TradeOffer offer, int offerIndex, int catalogVersion, int price) {
+        ItemStack tradeItem = new ItemStack(offer.getOutputMaterial());
+        ItemMeta meta = tradeItem.getItemMeta();
+        meta.setDisplayName(offer.getDisplayName());
+
+        // Clicks resolve through these tags, the lore is display only
+        meta.getPersistentDataContainer().set(EntityKeys.TRADE_OFFER_INDEX, PersistentDataType.INTEGER, offerIndex);
+        meta.getPersistentDataContainer().set(EntityKeys.TRADE_CATALOG_VERSION, PersistentDataType.INTEGER, catalogVersion);
+
+        meta.setLore(Arrays.asList(
+                "§7Cost: §e" + price + " " + formatMaterialName(offer.getInputMaterial()),
+                "§7Gives: §a" + offer.getOutputAmount() + " " + formatMaterialName(offer.getOutputMaterial()),
+                "§7Rarity: " + offer.getRarityColor() + offer.getRarity(),
+                "§6Click to trade!"
+        ));
+        tradeItem.setItemMeta(meta);
+        return tradeItem;
+    }
+
+    private String formatMaterialName(Material material) {
+        return material.name().toLowerCase().replace("_", " ");
+    }
+
+    /**
+     * Drops all templates (after a catalog reload)
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    private static final class Template {
+        private final int priceSequence;
+        private final ItemStack[] contents;
+
+        private Template(int priceSequence, ItemStack[] contents) {
+            this.priceSequence = priceSequence;
+            this.contents = contents;
+        }
+    }
+}
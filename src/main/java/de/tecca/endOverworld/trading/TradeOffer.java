@@ -27,6 +27,19 @@ public class TradeOffer {
         this.rarityColor = config.getString("rarity_colors." + rarity, "§7");
     }
 
+    // Constructor for catalog parsing, with the rarity color already resolved
+    TradeOffer(Material inputMaterial, int inputAmount, Material outputMaterial, int outputAmount,
+               String displayName, String rarity, int requiredLevel, String rarityColor) {
+        this.inputMaterial = inputMaterial;
+        this.inputAmount = inputAmount;
+        this.outputMaterial = outputMaterial;
+        this.outputAmount = outputAmount;
+        this.displayName = displayName;
+        this.rarity = rarity;
+        this.requiredLevel = requiredLevel;
+        this.rarityColor = rarityColor;
+    }
+
     // Alternative constructor for direct creation
     public TradeOffer(Material inputMaterial, int inputAmount, Material outputMaterial, int outputAmount,
                       String displayName, String rarity, int requiredLevel) {
@@ -75,8 +88,26 @@ public class TradeOffer {
         // Remove input items
         inventory.removeItem(createInputItemStack());
 
-        // Add output items
-        inventory.addItem(createOutputItemStack());
+        // Add output items, dropping whatever does not fit
+        PaymentEngine.giveOrDrop(inventory, createOutputItemStack());
+
+        return true;
+    }
+
+    // Execute the trade, paying with any configured currency (one inventory scan)
+    public boolean executeTrade(org.bukkit.inventory.PlayerInventory inventory, PaymentEngine payments) {
+        return executeTrade(inventory, payments, inputAmount);
+    }
+
+    // Execute the trade at a dynamic price instead of the base input amount
+    public boolean executeTrade(org.bukkit.inventory.PlayerInventory inventory, PaymentEngine payments, int price) {
+        PaymentEngine.Payment payment = payments.plan(inventory, inputMaterial, price);
+        if (payment == null) {
+            return false;
+        }
+
+        payment.commit();
+        PaymentEngine.giveOrDrop(inventory, createOutputItemStack());
 
         return true;
     }
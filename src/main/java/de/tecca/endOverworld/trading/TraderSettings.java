@@ -0,0 +1,87 @@
+package de.tecca.endOverworld.trading;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trader settings read once from trader_config.yml, so spawn rolls and trader registration never
+ * touch the configuration. Immutable - a reload swaps in a new instance.
+ */
+public final class TraderSettings {
+
+    private final double spawnChance;
+    private final int maxTradersPerChunk;
+    private final int maxTradersPerRegion;
+    private final int regionSizeChunks;
+    private final boolean particleEffects;
+    private final long particleInterval;
+    private final int deathDrops;
+    private final boolean logSpawning;
+    private final long saveInterval;
+    private final Map<String, String> rarityColors;
+
+    // economy.dynamic_pricing
+    private final boolean dynamicPricing;
+    private final double priceVariance;
+    private final double demandFactor;
+    private final double decayFactor;
+    private final long priceUpdateInterval;
+
+    private TraderSettings(FileConfiguration config) {
+        this.spawnChance = config.getDouble("trader_settings.spawn_chance", 0.03);
+        this.maxTradersPerChunk = config.getInt("performance.max_traders_per_chunk", 2);
+        this.maxTradersPerRegion = config.getInt("performance.max_traders_per_region", 6);
+        this.regionSizeChunks = Math.max(1, config.getInt("performance.trader_region_size", 8));
+        this.particleEffects = config.getBoolean("trader_settings.particle_effects", true);
+        this.particleInterval = config.getLong("trader_settings.particle_interval", 15L);
+        this.deathDrops = config.getInt("trader_settings.death_drops", 3);
+        this.logSpawning = config.getBoolean("debug.log_spawning", false);
+        this.saveInterval = Math.max(20L, config.getLong("trader_settings.save_interval", 200L));
+
+        Map<String, String> colors = new LinkedHashMap<>();
+        ConfigurationSection colorSection = config.getConfigurationSection("rarity_colors");
+        if (colorSection != null) {
+            for (String rarity : colorSection.getKeys(false)) {
+                colors.put(rarity, colorSection.getString(rarity, "§7"));
+            }
+        }
+        this.rarityColors = Collections.unmodifiableMap(colors);
+
+        this.dynamicPricing = config.getBoolean("economy.dynamic_pricing.enabled", false);
+        this.priceVariance = Math.max(0.0, config.getDouble("economy.dynamic_pricing.price_variance", 0.25));
+        this.demandFactor = config.getDouble("economy.dynamic_pricing.demand_factor", 0.1);
+        this.decayFactor = Math.min(1.0, Math.max(0.0, config.getDouble("economy.dynamic_pricing.decay_factor", 0.8)));
+        this.priceUpdateInterval = Math.max(20L, config.getLong("economy.dynamic_pricing.update_interval", 1200L));
+    }
+
+    public static TraderSettings fromConfig(FileConfiguration config) {
+        return new TraderSettings(config);
+    }
+
+    public double getSpawnChance() { return spawnChance; }
+    public int getMaxTradersPerChunk() { return maxTradersPerChunk; }
+    public int getMaxTradersPerRegion() { return maxTradersPerRegion; }
+    public int getRegionSizeChunks() { return regionSizeChunks; }
+    public boolean isParticleEffects() { return particleEffects; }
+    public long getParticleInterval() { return particleInterval; }
+    public int getDeathDrops() { return deathDrops; }
+    public boolean isLogSpawning() { return logSpawning; }
+    public long getSaveInterval() { return saveInterval; }
+
+    /**
+     * Gets the color code of a rarity, or gray for unknown rarities
+     */
+    public String getRarityColor(String rarity) { return rarityColors.getOrDefault(rarity, "§7"); }
+    public Set<String> getRarities() { return rarityColors.keySet(); }
+
+    public boolean isDynamicPricing() { return dynamicPricing; }
+    public double getPriceVariance() { return priceVariance; }
+    public double getDemandFactor() { return demandFactor; }
+    public double getDecayFactor() { return decayFactor; }
+    public long getPriceUpdateInterval() { return priceUpdateInterval; }
+}
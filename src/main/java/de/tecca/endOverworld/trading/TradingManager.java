@@ -2,80 +2,486 @@ package de.tecca.endOverworld.trading;
 
 import de.tecca.endOverworld.EndOverworld;
 import de.tecca.endOverworld.entities.TradingEnderman;
-import org.bukkit.configuration.file.FileConfiguration;
+import de.tecca.endOverworld.world.ChunkBucketIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Enderman;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Manages all trading operations and trader instances
+ * Manages all trading operations and trader instances.
+ * Only loaded traders are tracked - wrappers attach when their chunk loads and are evicted when the
+ * entity unloads or is removed from the world, so dead wrappers never accumulate.
  */
-public class TradingManager {
+public class TradingManager implements Listener {
 
     private final EndOverworld plugin;
-    private final Map<String, TradingEnderman> traders;
-    private final FileConfiguration config;
+    // Loaded traders keyed by enderman UUID, plus a trader ID index
+    private final Map<UUID, TradingEnderman> traders = new ConcurrentHashMap<>();
+    private final Map<String, TradingEnderman> tradersById = new ConcurrentHashMap<>();
+
+    // Where traders were registered or last teleported, for the per-chunk and per-region density caps.
+    // Walking traders fire no event, so the caps count these positions rather than live ones.
+    private final ChunkBucketIndex<TradingEnderman> densityIndex = new ChunkBucketIndex<>();
+    private volatile TraderSettings settings;
+    private final TradeMenuCache menuCache = new TradeMenuCache();
+    private TradeCatalog catalog;
+    private PaymentEngine paymentEngine;
+    private final PricingService pricingService;
+
+    // Incremental statistics over loaded traders, updated on register, trade, level-up and evict.
+    // Main thread only - other threads read the snapshot published after every change.
+    private int[] levelHistogram;
+    private long loadedTrades;
+    private volatile TradingStats stats;
+
+    // Traders with unsaved progression, written out together by the flush task
+    private final Set<TradingEnderman> dirtyTraders = new LinkedHashSet<>();
+    private BukkitTask flushTask;
 
     public TradingManager(EndOverworld plugin) {
         this.plugin = plugin;
-        this.traders = new HashMap<>();
-        this.config = plugin.getTraderConfig();
+        this.settings = plugin.getSettings().getTraders();
+        this.catalog = plugin.getSettings().getCatalog();
+        this.levelHistogram = new int[catalog.getMaxLevel() + 1];
+        this.paymentEngine = plugin.getSettings().getPaymentEngine();
+        this.pricingService = new PricingService(plugin, settings, catalog);
+        publishStats();
+    }
+
+    /**
+     * Starts the progression flush and price decay tasks, once the feature is registered
+     */
+    public void start() {
+        scheduleFlush();
+        pricingService.start();
+    }
+
+    private void scheduleFlush() {
+        if (flushTask != null) flushTask.cancel();
+
+        long saveInterval = settings.getSaveInterval();
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flushDirtyTraders, saveInterval, saveInterval);
+    }
+
+    /**
+     * Records a completed trade: updates the statistics and marks the trader's progression as changed.
+     * Only counter updates and a set insert, the write happens in the next flush.
+     */
+    public void recordTrade(TradingEnderman trader, int previousLevel) {
+        loadedTrades++;
+
+        int level = trader.getTraderData().getLevel();
+        if (level != previousLevel) {
+            levelHistogram[previousLevel]--;
+            levelHistogram[level]++;
+        }
+        publishStats();
+
+        dirtyTraders.add(trader);
+    }
+
+    /**
+     * Writes all pending progression to the endermen's persistent data.
+     * Runs on the main thread since entity data is not thread-safe - the server writes it to disk
+     * with the chunk's entities, so no file I/O happens here.
+     */
+    public void flushDirtyTraders() {
+        if (dirtyTraders.isEmpty()) return;
+
+        for (TradingEnderman trader : dirtyTraders) {
+            if (trader.getEnderman().isValid()) {
+                trader.saveProgress();
+            }
+        }
+        dirtyTraders.clear();
+    }
+
+    private void flushTrader(TradingEnderman trader) {
+        if (dirtyTraders.remove(trader)) {
+            trader.saveProgress();
+        }
+    }
+
+    /**
+     * Switches to the trade catalog of the current settings and hands it to all loaded traders
+     */
+    public void reloadCatalog() {
+        catalog = plugin.getSettings().getCatalog();
+        menuCache.clear();
+        paymentEngine = plugin.getSettings().getPaymentEngine();
+        pricingService.reloadSettings(settings, catalog);
+        // Levels may be clamped by a lower max_level, so the histogram is rebuilt
+        levelHistogram = new int[catalog.getMaxLevel() + 1];
+        for (TradingEnderman trader : traders.values()) {
+            trader.getTraderData().setCatalog(catalog);
+            levelHistogram[trader.getTraderData().getLevel()]++;
+        }
+        publishStats();
+        plugin.getLogger().info("Loaded trade catalog v" + catalog.getVersion() + " with " + catalog.size() + " offers");
+    }
+
+    public TradeCatalog getCatalog() { return catalog; }
+    public TradeMenuCache getMenuCache() { return menuCache; }
+    public PaymentEngine getPaymentEngine() { return paymentEngine; }
+    public PricingService getPricingService() { return pricingService; }
+
+    /**
+     * Applies the trader settings of the current settings. Particle changes apply to traders registered afterwards.
+     */
+    public void reloadSettings() {
+        long previousInterval = settings.getSaveInterval();
+        settings = plugin.getSettings().getTraders();
+
+        // Restart the flush task if it is running with an outdated interval
+        if (flushTask != null && settings.getSaveInterval() != previousInterval) {
+            scheduleFlush();
+        }
+    }
+
+    public TraderSettings getSettings() { return settings; }
+
+    /**
+     * Spawns Trading Endermen with configured chance. Runs at MONITOR so spawns cancelled by other
+     * plugins never register a trader.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEndermanSpawn(CreatureSpawnEvent event) {
+        // Enum compare first, every other creature leaves here
+        if (event.getEntityType() != EntityType.ENDERMAN) return;
+
+        rollTradingEnderman((Enderman) event.getEntity());
+    }
+
+    /**
+     * Rolls the spawn chance for a freshly spawned enderman and turns it into a trader if the roll
+     * succeeds and the density caps allow it
+     *
+     * @return the new trader, or null
+     */
+    public TradingEnderman rollTradingEnderman(Enderman enderman) {
+        TraderSettings current = settings;
+        if (ThreadLocalRandom.current().nextDouble() >= current.getSpawnChance()) return null;
+
+        Location location = enderman.getLocation();
+        if (!hasTraderCapacity(location, current)) {
+            if (current.isLogSpawning()) {
+                plugin.getLogger().info("Trader spawn skipped, density cap reached near chunk "
+                        + (location.getBlockX() >> 4) + ", " + (location.getBlockZ() >> 4));
+            }
+            return null;
+        }
+
+        return createTradingEnderman(enderman);
+    }
+
+    private boolean hasTraderCapacity(Location location, TraderSettings current) {
+        World world = location.getWorld();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+
+        if (countLiveTraders(world, chunkX, chunkZ) >= current.getMaxTradersPerChunk()) {
+            return false;
+        }
+
+        // Regions are a fixed grid of regionSize x regionSize chunks
+        int regionSize = current.getRegionSizeChunks();
+        int minChunkX = Math.floorDiv(chunkX, regionSize) * regionSize;
+        int minChunkZ = Math.floorDiv(chunkZ, regionSize) * regionSize;
+        int count = 0;
+
+        for (int x = minChunkX; x < minChunkX + regionSize; x++) {
+            for (int z = minChunkZ; z < minChunkZ + regionSize; z++) {
+                count += countLiveTraders(world, x, z);
+                if (count >= current.getMaxTradersPerRegion()) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the traders indexed in a chunk, evicting any whose enderman is no longer in the world
+     */
+    private int countLiveTraders(World world, int chunkX, int chunkZ) {
+        List<TradingEnderman> indexed = densityIndex.getInChunk(world, chunkX, chunkZ);
+        int count = 0;
+
+        // Backwards, since evicting removes the entry from this list
+        for (int i = indexed.size() - 1; i >= 0; i--) {
+            TradingEnderman trader = indexed.get(i);
+            if (trader.getEnderman().isValid()) {
+                count++;
+            } else {
+                evict(trader);
+            }
+        }
+        return count;
     }
 
     /**
      * Creates a new Trading Enderman
      */
     public TradingEnderman createTradingEnderman(Enderman enderman) {
-        TradingEnderman trader = new TradingEnderman(plugin, enderman);
-        traders.put(trader.getTraderID(), trader);
+        TradingEnderman trader = new TradingEnderman(plugin, enderman, catalog);
+        registerTrader(trader);
         return trader;
     }
 
+    private void registerTrader(TradingEnderman trader) {
+        TradingEnderman previous = tradersById.get(trader.getTraderID());
+        if (previous != null) {
+            evict(previous);
+        }
+        traders.put(trader.getEnderman().getUniqueId(), trader);
+        tradersById.put(trader.getTraderID(), trader);
+
+        levelHistogram[trader.getTraderData().getLevel()]++;
+        loadedTrades += trader.getTraderData().getTradesCompleted();
+        publishStats();
+        densityIndex.update(trader, trader.getEnderman().getLocation());
+
+        TraderSettings current = settings;
+        if (current.isParticleEffects()) {
+            plugin.getParticleManager().register(trader, current.getParticleInterval());
+        }
+    }
+
     /**
      * Gets a Trading Enderman by ID
      */
     public TradingEnderman getTradingEnderman(String traderID) {
-        return traders.get(traderID);
+        return tradersById.get(traderID);
+    }
+
+    /**
+     * Gets a Trading Enderman by entity UUID, only if it is loaded and registered
+     */
+    public TradingEnderman getTraderByEntityId(UUID entityId) {
+        return traders.get(entityId);
     }
 
     /**
-     * Gets a Trading Enderman by Enderman entity
+     * Gets a Trading Enderman by Enderman entity, attaching a wrapper if the registry has none yet
      */
     public TradingEnderman getTradingEnderman(Enderman enderman) {
+        TradingEnderman trader = traders.get(enderman.getUniqueId());
+        if (trader != null && trader.getEnderman() == enderman) return trader;
+
         String traderID = TradingEnderman.getTradingEndermanID(enderman);
-        return traderID != null ? traders.get(traderID) : null;
+        return traderID != null ? attachTrader(enderman, traderID) : null;
+    }
+
+    private TradingEnderman attachTrader(Enderman enderman, String traderID) {
+        TradingEnderman trader = new TradingEnderman(plugin, enderman, traderID, catalog);
+        registerTrader(trader);
+        return trader;
+    }
+
+    /**
+     * Re-attaches traders whose entities were loaded from disk
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Enderman && TradingEnderman.isTradingEnderman((Enderman) entity)) {
+                getTradingEnderman((Enderman) entity);
+            }
+        }
+    }
+
+    /**
+     * Attaches traders in chunks that were already loaded before the listener was registered
+     */
+    public void attachLoadedTraders() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Enderman enderman : world.getEntitiesByClass(Enderman.class)) {
+                if (TradingEnderman.isTradingEnderman(enderman)) {
+                    getTradingEnderman(enderman);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detaches traders whose entities are being unloaded
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            TradingEnderman trader = traders.get(entity.getUniqueId());
+            if (trader == null) continue;
+
+            // Write pending progression before the entity is saved with its chunk
+            flushTrader(trader);
+            evict(trader);
+        }
+    }
+
+    /**
+     * Moves teleporting traders to their new density bucket
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTraderTeleport(EntityTeleportEvent event) {
+        if (event.getTo() == null) return;
+
+        TradingEnderman trader = traders.get(event.getEntity().getUniqueId());
+        if (trader != null) {
+            densityIndex.update(trader, event.getTo());
+        }
+    }
+
+    /**
+     * Evicts traders that despawn, die or are otherwise removed from the world
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        TradingEnderman trader = traders.get(event.getEntity().getUniqueId());
+        if (trader != null) {
+            flushTrader(trader);
+            evict(trader);
+        }
     }
 
     /**
      * Removes a trader (when they die or are removed)
      */
     public void removeTrader(String traderID) {
-        traders.remove(traderID);
+        TradingEnderman trader = tradersById.get(traderID);
+        if (trader != null) {
+            evict(trader);
+        }
     }
 
     /**
      * Removes a trader by Enderman entity
      */
     public void removeTrader(Enderman enderman) {
-        String traderID = TradingEnderman.getTradingEndermanID(enderman);
-        if (traderID != null) {
-            removeTrader(traderID);
+        TradingEnderman trader = traders.get(enderman.getUniqueId());
+        if (trader != null) {
+            evict(trader);
         }
     }
 
+    private void evict(TradingEnderman trader) {
+        if (!traders.remove(trader.getEnderman().getUniqueId(), trader)) return;
+        tradersById.remove(trader.getTraderID(), trader);
+
+        levelHistogram[trader.getTraderData().getLevel()]--;
+        loadedTrades -= trader.getTraderData().getTradesCompleted();
+        publishStats();
+        densityIndex.remove(trader);
+        plugin.getParticleManager().unregister(trader);
+        dirtyTraders.remove(trader);
+    }
+
     /**
-     * Processes a trade click from a player
+     * Opens the trading menu when a player right-clicks a Trading Enderman
      */
-    public boolean processTrade(Player player, ItemStack tradeItem, String traderID) {
-        TradingEnderman trader = getTradingEnderman(traderID);
-        if (trader != null) {
-            return trader.processTrade(player, tradeItem);
+    @EventHandler
+    public void onPlayerInteractEntity(PlayerInteractEntityEvent event) {
+        if (!(event.getRightClicked() instanceof Enderman)) return;
+
+        Enderman enderman = (Enderman) event.getRightClicked();
+        if (TradingEnderman.isTradingEnderman(enderman)) {
+            event.setCancelled(true);
+            openTradingMenu(event.getPlayer(), enderman);
+        }
+    }
+
+    /**
+     * Handles trading menu clicks
+     */
+    @EventHandler
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (!(event.getInventory().getHolder() instanceof TradingMenuHolder)) return;
+
+        event.setCancelled(true);
+
+        // Trade slots are identified by their offer tag, so anything else is simply ignored
+        if (event.getCurrentItem() == null || event.getCurrentItem().getType() == org.bukkit.Material.AIR) {
+            return;
         }
-        return false;
+
+        // Allow trading for all game modes
+        Player player = (Player) event.getWhoClicked();
+        processTrade(player, event.getCurrentItem(), (TradingMenuHolder) event.getInventory().getHolder());
+    }
+
+    /**
+     * Handles Trading Enderman defense when attacked
+     */
+    @EventHandler
+    public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
+        if (!(event.getEntity() instanceof Enderman && event.getDamager() instanceof Player)) return;
+
+        Enderman enderman = (Enderman) event.getEntity();
+        Player player = (Player) event.getDamager();
+
+        // Skip defense mechanics for creative mode players
+        if (player.getGameMode() == GameMode.CREATIVE) return;
+
+        if (TradingEnderman.isTradingEnderman(enderman)) {
+            handleTraderAttacked(enderman, player);
+        }
+    }
+
+    /**
+     * Handles Trading Enderman death drops
+     */
+    @EventHandler
+    public void onEntityDeath(EntityDeathEvent event) {
+        if (!(event.getEntity() instanceof Enderman)) return;
+
+        Enderman enderman = (Enderman) event.getEntity();
+
+        if (TradingEnderman.isTradingEnderman(enderman)) {
+            // Clear default drops to prevent duplication
+            event.getDrops().clear();
+            event.setDroppedExp(0);
+
+            handleTraderDeath(enderman);
+        }
+    }
+
+    /**
+     * Processes a trade click from a player in a trading menu
+     */
+    public boolean processTrade(Player player, ItemStack tradeItem, TradingMenuHolder menu) {
+        TradingEnderman trader = menu.getTrader();
+        if (!trader.getEnderman().isValid()) {
+            // Trader died or unloaded while the menu was open
+            player.closeInventory();
+            return false;
+        }
+        return trader.processTrade(player, tradeItem, menu);
     }
 
     /**
@@ -104,9 +510,8 @@ public class TradingManager {
     public void handleTraderDeath(Enderman enderman) {
         TradingEnderman trader = getTradingEnderman(enderman);
         if (trader != null) {
-            int dropCount = config.getInt("trader_settings.death_drops", 3);
-            trader.dropRandomShopItems(dropCount);
-            removeTrader(trader.getTraderID());
+            trader.dropRandomShopItems(settings.getDeathDrops());
+            evict(trader);
         }
     }
 
@@ -114,14 +519,14 @@ public class TradingManager {
      * Gets the spawn chance for Trading Endermen
      */
     public double getSpawnChance() {
-        return config.getDouble("trader_settings.spawn_chance", 0.03);
+        return settings.getSpawnChance();
     }
 
     /**
-     * Gets all active traders
+     * Gets all loaded traders keyed by enderman UUID, as a read-only live view
      */
-    public Map<String, TradingEnderman> getAllTraders() {
-        return new HashMap<>(traders);
+    public Map<UUID, TradingEnderman> getAllTraders() {
+        return Collections.unmodifiableMap(traders);
     }
 
     /**
@@ -146,7 +551,7 @@ public class TradingManager {
                     displayName,
                     rarity,
                     level,
-                    config
+                    settings.getRarityColor(rarity)
             );
         } catch (IllegalArgumentException e) {
             plugin.getLogger().warning("Invalid material in trade offer: " + e.getMessage());
@@ -155,118 +560,58 @@ public class TradingManager {
     }
 
     /**
-     * Validates all trade offers in config
+     * Cleanup method - saves pending progression and removes invalid traders
      */
-    public void validateTradeOffers() {
-        List<String> tradeStrings = config.getStringList("trade_offers");
-        List<String> customTrades = config.getStringList("custom_trades");
-
-        int validOffers = 0;
-        int invalidOffers = 0;
-
-        // Validate main offers
-        for (String tradeString : tradeStrings) {
-            if (validateTradeString(tradeString)) {
-                validOffers++;
-            } else {
-                invalidOffers++;
-                plugin.getLogger().warning("Invalid trade offer: " + tradeString);
-            }
-        }
+    public void cleanup() {
+        flushDirtyTraders();
 
-        // Validate custom offers
-        for (String tradeString : customTrades) {
-            if (validateTradeString(tradeString)) {
-                validOffers++;
-            } else {
-                invalidOffers++;
-                plugin.getLogger().warning("Invalid custom trade: " + tradeString);
+        for (TradingEnderman trader : traders.values()) {
+            if (trader.getEnderman().isDead() || !trader.getEnderman().isValid()) {
+                evict(trader);
             }
         }
-
-        plugin.getLogger().info("Validated " + validOffers + " trade offers (" + invalidOffers + " invalid)");
-    }
-
-    private boolean validateTradeString(String tradeString) {
-        try {
-            String[] parts = tradeString.split(":");
-            if (parts.length != 7) return false;
-
-            // Validate materials
-            org.bukkit.Material.valueOf(parts[0].toUpperCase());
-            org.bukkit.Material.valueOf(parts[2].toUpperCase());
-
-            // Validate numbers
-            int inputAmount = Integer.parseInt(parts[1]);
-            int outputAmount = Integer.parseInt(parts[3]);
-            int level = Integer.parseInt(parts[6]);
-
-            return inputAmount > 0 && outputAmount > 0 && level > 0;
-        } catch (Exception e) {
-            return false;
-        }
     }
 
     /**
-     * Gets player's current trader ID from metadata
+     * Saves all pending progression and stops the flush task (for plugin disable)
      */
-    public String getPlayerCurrentTraderID(Player player) {
-        if (player.hasMetadata("currentTraderID")) {
-            return player.getMetadata("currentTraderID").get(0).asString();
-        }
-        return null;
+    public void shutdown() {
+        if (flushTask != null) flushTask.cancel();
+        pricingService.shutdown();
+        cleanup();
     }
 
     /**
-     * Clears player's trader metadata
+     * Builds an immutable statistics snapshot from the counters. Costs O(max_level), not O(traders).
      */
-    public void clearPlayerTraderData(Player player) {
-        if (player.hasMetadata("currentTraderID")) {
-            player.removeMetadata("currentTraderID", plugin);
+    private void publishStats() {
+        int highestLevel = 0;
+        int totalOffers = 0;
+        Map<Integer, Integer> levelCounts = new HashMap<>();
+
+        for (int level = 1; level < levelHistogram.length; level++) {
+            if (levelHistogram[level] == 0) continue;
+            highestLevel = level;
+            totalOffers += levelHistogram[level] * catalog.getUnlockedCount(level);
+            levelCounts.put(level, levelHistogram[level]);
         }
-    }
 
-    /**
-     * Cleanup method - removes invalid traders
-     */
-    public void cleanup() {
-        traders.entrySet().removeIf(entry -> {
-            TradingEnderman trader = entry.getValue();
-            return trader.getEnderman().isDead() || !trader.getEnderman().isValid();
-        });
+        stats = new TradingStats(traders.size(), (int) loadedTrades, highestLevel, totalOffers,
+                Collections.unmodifiableMap(levelCounts));
     }
 
     /**
-     * Gets statistics about all traders
+     * Gets statistics about all loaded traders. Returns the latest published snapshot, safe from any thread.
      */
     public TradingStats getStatistics() {
-        int totalTraders = traders.size();
-        int totalTrades = 0;
-        int maxLevel = 0;
-        int totalOffers = 0;
-
-        for (TradingEnderman trader : traders.values()) {
-            TraderData data = trader.getTraderData();
-            totalTrades += data.getTradesCompleted();
-            maxLevel = Math.max(maxLevel, data.getLevel());
-            totalOffers += data.getUnlockedOfferCount();
-        }
-
-        return new TradingStats(totalTraders, totalTrades, maxLevel, totalOffers);
+        return stats;
     }
 
     /**
-     * Gets traders by level
+     * Gets the number of loaded traders per level, as a read-only map. Safe from any thread.
      */
     public Map<Integer, Integer> getTradersByLevel() {
-        Map<Integer, Integer> levelCounts = new HashMap<>();
-
-        for (TradingEnderman trader : traders.values()) {
-            int level = trader.getTraderData().getLevel();
-            levelCounts.put(level, levelCounts.getOrDefault(level, 0) + 1);
-        }
-
-        return levelCounts;
+        return stats.getTradersByLevel();
     }
 
     /**
@@ -285,9 +630,7 @@ public class TradingManager {
      * Gets all valid rarity types from config
      */
     public List<String> getValidRarities() {
-        return List.of(
-                config.getConfigurationSection("rarity_colors").getKeys(false).toArray(new String[0])
-        );
+        return List.copyOf(settings.getRarities());
     }
 
     /**
@@ -298,18 +641,26 @@ public class TradingManager {
         private final int totalTrades;
         private final int highestLevel;
         private final int totalOffers;
+        private final Map<Integer, Integer> tradersByLevel;
 
         public TradingStats(int totalTraders, int totalTrades, int highestLevel, int totalOffers) {
+            this(totalTraders, totalTrades, highestLevel, totalOffers, Collections.emptyMap());
+        }
+
+        public TradingStats(int totalTraders, int totalTrades, int highestLevel, int totalOffers,
+                            Map<Integer, Integer> tradersByLevel) {
             this.totalTraders = totalTraders;
             this.totalTrades = totalTrades;
             this.highestLevel = highestLevel;
             this.totalOffers = totalOffers;
+            this.tradersByLevel = tradersByLevel;
         }
 
         public int getTotalTraders() { return totalTraders; }
         public int getTotalTrades() { return totalTrades; }
         public int getHighestLevel() { return highestLevel; }
         public int getTotalOffers() { return totalOffers; }
+        public Map<Integer, Integer> getTradersByLevel() { return tradersByLevel; }
 
         @Override
         public String toString() {
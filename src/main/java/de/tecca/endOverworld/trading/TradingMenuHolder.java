@@ -0,0 +1,43 @@
+package de.tecca.endOverworld.trading;
+
+import de.tecca.endOverworld.entities.TradingEnderman;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import java.util.List;
+
+/**
+ * Holder of an open trading menu. Lets click handlers recognise trading menus with one instanceof check
+ * and resolve the trader and the offers shown without any title or metadata lookups.
+ */
+public class TradingMenuHolder implements InventoryHolder {
+
+    private final TradingEnderman trader;
+    private final Inventory inventory;
+    private List<TradeOffer> offers;
+    private int catalogVersion;
+    private PricingService.PriceSnapshot prices;
+
+    public TradingMenuHolder(TradingEnderman trader, String title) {
+        this.trader = trader;
+        this.inventory = Bukkit.createInventory(this, TradeMenuCache.MENU_SIZE, title);
+    }
+
+    /**
+     * Records the offer table and prices currently rendered into the menu slots
+     */
+    public void setOffers(List<TradeOffer> offers, int catalogVersion, PricingService.PriceSnapshot prices) {
+        this.offers = offers;
+        this.catalogVersion = catalogVersion;
+        this.prices = prices;
+    }
+
+    @Override
+    public Inventory getInventory() { return inventory; }
+
+    public TradingEnderman getTrader() { return trader; }
+    public List<TradeOffer> getOffers() { return offers; }
+    public int getCatalogVersion() { return catalogVersion; }
+    public PricingService.PriceSnapshot getPrices() { return prices; }
+}
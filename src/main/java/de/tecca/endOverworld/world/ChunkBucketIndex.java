@@ -0,0 +1,219 @@
+package de.tecca.endOverworld.world;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Spatial index that buckets entries by world and chunk, so radius queries only touch nearby chunks.
+ * Entries that move without an event can be refreshed round-robin with {@link #refreshNext}.
+ * Not thread-safe - intended for use from the main thread.
+ */
+public class ChunkBucketIndex<T> {
+
+    private final Map<UUID, Map<Long, List<T>>> worlds = new HashMap<>();
+    private final Map<T, Bucket> positions = new HashMap<>();
+
+    // All entries in insertion order for round-robin refreshes, swap-removed
+    private final List<T> roster = new ArrayList<>();
+    private int refreshCursor;
+
+    /**
+     * Adds an entry or moves it to the bucket of its current location
+     *
+     * @return true if the entry changed buckets
+     */
+    public boolean update(T entry, Location location) {
+        UUID worldId = location.getWorld().getUID();
+        long chunkKey = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+
+        Bucket current = positions.get(entry);
+        if (current != null) {
+            if (current.chunkKey == chunkKey && current.worldId.equals(worldId)) return false;
+            removeFromBucket(entry, current);
+            current.worldId = worldId;
+            current.chunkKey = chunkKey;
+        } else {
+            positions.put(entry, new Bucket(worldId, chunkKey, roster.size()));
+            roster.add(entry);
+        }
+
+        worlds.computeIfAbsent(worldId, id -> new HashMap<>())
+                .computeIfAbsent(chunkKey, key -> new ArrayList<>(2))
+                .add(entry);
+        return true;
+    }
+
+    /**
+     * Removes an entry from the index
+     *
+     * @return true if the entry was indexed
+     */
+    public boolean remove(T entry) {
+        Bucket bucket = positions.remove(entry);
+        if (bucket == null) return false;
+
+        removeFromBucket(entry, bucket);
+
+        // Swap-remove; the moved entry may be skipped for one refresh cycle
+        T last = roster.remove(roster.size() - 1);
+        if (last != entry) {
+            roster.set(bucket.rosterSlot, last);
+            positions.get(last).rosterSlot = bucket.rosterSlot;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the next entries of a round-robin pass to the bucket of their current location.
+     * Entries the locator returns null for are removed.
+     *
+     * @param count    how many entries to refresh, the cost of a call
+     * @param locator  gets an entry's current location, or null if it is gone
+     */
+    public void refreshNext(int count, Function<T, Location> locator) {
+        for (int i = 0; i < count && !roster.isEmpty(); i++) {
+            if (refreshCursor >= roster.size()) refreshCursor = 0;
+
+            T entry = roster.get(refreshCursor);
+            Location location = locator.apply(entry);
+            if (location == null) {
+                // The last entry moves into this slot, so the cursor stays
+                remove(entry);
+            } else {
+                update(entry, location);
+                refreshCursor++;
+            }
+        }
+    }
+
+    /**
+     * Gets how many calls of refreshNext with the given count a full pass over all entries takes
+     */
+    public int getRefreshCycle(int count) {
+        return Math.max(1, (roster.size() + count - 1) / count);
+    }
+
+    private void removeFromBucket(T entry, Bucket bucket) {
+        Map<Long, List<T>> chunks = worlds.get(bucket.worldId);
+        if (chunks == null) return;
+
+        List<T> entries = chunks.get(bucket.chunkKey);
+        if (entries == null) return;
+
+        entries.remove(entry);
+        if (entries.isEmpty()) {
+            chunks.remove(bucket.chunkKey);
+            if (chunks.isEmpty()) worlds.remove(bucket.worldId);
+        }
+    }
+
+    /**
+     * Visits every entry bucketed in a chunk that overlaps the square around (x, z).
+     * Callers still need an exact distance check, entries are only as precise as their last update.
+     */
+    public void forEachNear(World world, double x, double z, double radius, Consumer<T> action) {
+        Map<Long, List<T>> chunks = worlds.get(world.getUID());
+        if (chunks == null) return;
+
+        int minChunkX = (int) Math.floor(x - radius) >> 4;
+        int maxChunkX = (int) Math.floor(x + radius) >> 4;
+        int minChunkZ = (int) Math.floor(z - radius) >> 4;
+        int maxChunkZ = (int) Math.floor(z + radius) >> 4;
+
+        // Large radius: walking the occupied buckets is cheaper than probing every chunk
+        long area = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+        if (area > chunks.size()) {
+            for (Map.Entry<Long, List<T>> bucket : chunks.entrySet()) {
+                int chunkX = (int) (bucket.getKey() >> 32);
+                int chunkZ = (int) (long) bucket.getKey();
+                if (chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ) {
+                    bucket.getValue().forEach(action);
+                }
+            }
+            return;
+        }
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<T> entries = chunks.get(chunkKey(chunkX, chunkZ));
+                if (entries != null) entries.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Checks whether any entry bucketed near (x, z) matches the predicate, stopping at the first match
+     */
+    public boolean anyNear(World world, double x, double z, double radius, Predicate<T> predicate) {
+        Map<Long, List<T>> chunks = worlds.get(world.getUID());
+        if (chunks == null) return false;
+
+        int minChunkX = (int) Math.floor(x - radius) >> 4;
+        int maxChunkX = (int) Math.floor(x + radius) >> 4;
+        int minChunkZ = (int) Math.floor(z - radius) >> 4;
+        int maxChunkZ = (int) Math.floor(z + radius) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<T> entries = chunks.get(chunkKey(chunkX, chunkZ));
+                if (entries == null) continue;
+
+                for (T entry : entries) {
+                    if (predicate.test(entry)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets all entries bucketed in a single chunk, or an empty list
+     */
+    public List<T> getInChunk(World world, int chunkX, int chunkZ) {
+        Map<Long, List<T>> chunks = worlds.get(world.getUID());
+        if (chunks == null) return List.of();
+
+        List<T> entries = chunks.get(chunkKey(chunkX, chunkZ));
+        return entries != null ? entries : List.of();
+    }
+
+    public boolean contains(T entry) {
+        return positions.containsKey(entry);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public void clear() {
+        worlds.clear();
+        positions.clear();
+        roster.clear();
+        refreshCursor = 0;
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static final class Bucket {
+        private UUID worldId;
+        private long chunkKey;
+        private int rosterSlot;
+
+        private Bucket(UUID worldId, long chunkKey, int rosterSlot) {
+            this.worldId = worldId;
+            this.chunkKey = chunkKey;
+            this.rosterSlot = rosterSlot;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package de.tecca.endOverworld.world;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Flattened block snapshot of an End City bounding box.
+ * The chunk snapshots are captured once on the main thread, the flag grid can then be
+ * built and queried from any thread without touching the world again.
+ */
+public class CityBlockSnapshot {
+
+    private final World world;
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeY, sizeZ;
+
+    // One flag byte per block, bits are defined by the caller's material table
+    private final byte[] flags;
+
+    // 3D prefix sums over the counted flag, so box counts are O(1)
+    private final int[] countPrefix;
+
+    // Per block: relative y of the highest column-flagged block at or below it, -1 if none
+    private final short[] columnHeight;
+
+    private CityBlockSnapshot(Region region, byte[] materialFlags, byte countedFlag, byte columnFlag) {
+        this.world = region.world;
+        this.minX = region.minX;
+        this.minY = region.minY;
+        this.minZ = region.minZ;
+        this.sizeX = region.sizeX;
+        this.sizeY = region.sizeY;
+        this.sizeZ = region.sizeZ;
+        this.flags = new byte[sizeX * sizeY * sizeZ];
+        this.countPrefix = new int[(sizeX + 1) * (sizeY + 1) * (sizeZ + 1)];
+        this.columnHeight = new short[flags.length];
+
+        fillFlags(region, materialFlags);
+        buildCountPrefix(countedFlag);
+        buildColumnHeights(columnFlag);
+    }
+
+    /**
+     * Captures the loaded chunks covering a box around the center. Must run on the main thread.
+     * Chunks that are not loaded are skipped rather than loaded, their blocks carry no flags.
+     */
+    public static Region capture(Location center, int horizontalRadius, int below, int above) {
+        World world = center.getWorld();
+        int minY = Math.max(world.getMinHeight(), center.getBlockY() - below);
+        int maxY = Math.min(world.getMaxHeight() - 1, center.getBlockY() + above);
+
+        Region region = new Region(world,
+                center.getBlockX() - horizontalRadius, minY, center.getBlockZ() - horizontalRadius,
+                horizontalRadius * 2 + 1, Math.max(0, maxY - minY + 1), horizontalRadius * 2 + 1);
+
+        for (int cx = 0; cx < region.chunksX; cx++) {
+            for (int cz = 0; cz < region.chunksZ; cz++) {
+                int chunkX = region.minChunkX + cx, chunkZ = region.minChunkZ + cz;
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    region.chunks[cx * region.chunksZ + cz] = world
+                            .getChunkAt(chunkX, chunkZ)
+                            .getChunkSnapshot(false, false, false);
+                }
+            }
+        }
+        return region;
+    }
+
+    private void fillFlags(Region region, byte[] materialFlags) {
+        for (int x = 0; x < sizeX; x++) {
+            int worldX = minX + x;
+            int chunkX = (worldX >> 4) - region.minChunkX;
+
+            for (int z = 0; z < sizeZ; z++) {
+                int worldZ = minZ + z;
+                ChunkSnapshot chunk = region.chunks[chunkX * region.chunksZ + ((worldZ >> 4) - region.minChunkZ)];
+                if (chunk == null) continue; // Not loaded, left unflagged
+
+                for (int y = 0; y < sizeY; y++) {
+                    Material material = chunk.getBlockType(worldX & 15, minY + y, worldZ & 15);
+                    flags[index(x, y, z)] = materialFlags[material.ordinal()];
+                }
+            }
+        }
+    }
+
+    private void buildCountPrefix(byte countedFlag) {
+        int strideY = sizeZ + 1;
+        int strideX = (sizeY + 1) * strideY;
+
+        for (int x = 1; x <= sizeX; x++) {
+            for (int y = 1; y <= sizeY; y++) {
+                for (int z = 1; z <= sizeZ; z++) {
+                    int value = (flags[index(x - 1, y - 1, z - 1)] & countedFlag) != 0 ? 1 : 0;
+                    int i = x * strideX + y * strideY + z;
+                    countPrefix[i] = value
+                            + countPrefix[i - strideX] + countPrefix[i - strideY] + countPrefix[i - 1]
+                            - countPrefix[i - strideX - strideY] - countPrefix[i - strideX - 1] - countPrefix[i - strideY - 1]
+                            + countPrefix[i - strideX - strideY - 1];
+                }
+            }
+        }
+    }
+
+    private void buildColumnHeights(byte columnFlag) {
+        for (int x = 0; x < sizeX; x++) {
+            for (int z = 0; z < sizeZ; z++) {
+                short last = -1;
+                for (int y = 0; y < sizeY; y++) {
+                    int i = index(x, y, z);
+                    if ((flags[i] & columnFlag) != 0) last = (short) y;
+                    columnHeight[i] = last;
+                }
+            }
+        }
+    }
+
+    private int index(int x, int y, int z) {
+        return (x * sizeY + y) * sizeZ + z;
+    }
+
+    /**
+     * Checks whether the block at world coordinates carries a flag.
+     * Blocks outside the snapshot count as having no flags.
+     */
+    public boolean has(int worldX, int worldY, int worldZ, byte flag) {
+        int x = worldX - minX, y = worldY - minY, z = worldZ - minZ;
+        if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) return false;
+        return (flags[index(x, y, z)] & flag) != 0;
+    }
+
+    /**
+     * Counts blocks carrying the counted flag inside an inclusive world-coordinate box, clipped to the snapshot
+     */
+    public int count(int fromX, int fromY, int fromZ, int toX, int toY, int toZ) {
+        int x0 = Math.max(fromX - minX, 0), x1 = Math.min(toX - minX, sizeX - 1);
+        int y0 = Math.max(fromY - minY, 0), y1 = Math.min(toY - minY, sizeY - 1);
+        int z0 = Math.max(fromZ - minZ, 0), z1 = Math.min(toZ - minZ, sizeZ - 1);
+        if (x0 > x1 || y0 > y1 || z0 > z1) return 0;
+
+        return prefix(x1 + 1, y1 + 1, z1 + 1)
+                - prefix(x0, y1 + 1, z1 + 1) - prefix(x1 + 1, y0, z1 + 1) - prefix(x1 + 1, y1 + 1, z0)
+                + prefix(x0, y0, z1 + 1) + prefix(x0, y1 + 1, z0) + prefix(x1 + 1, y0, z0)
+                - prefix(x0, y0, z0);
+    }
+
+    private int prefix(int x, int y, int z) {
+        return countPrefix[(x * (sizeY + 1) + y) * (sizeZ + 1) + z];
+    }
+
+    /**
+     * Gets the world y of the highest column-flagged block at or below the given position,
+     * or Integer.MIN_VALUE if there is none inside the snapshot
+     */
+    public int columnHeightAtOrBelow(int worldX, int worldY, int worldZ) {
+        int x = worldX - minX, y = Math.min(worldY - minY, sizeY - 1), z = worldZ - minZ;
+        if (x < 0 || z < 0 || x >= sizeX || z >= sizeZ || y < 0) return Integer.MIN_VALUE;
+
+        short height = columnHeight[index(x, y, z)];
+        return height < 0 ? Integer.MIN_VALUE : minY + height;
+    }
+
+    public World getWorld() { return world; }
+
+    /**
+     * Chunk snapshots and bounds captured on the main thread, ready to be built anywhere
+     */
+    public static class Region {
+        private final World world;
+        private final int minX, minY, minZ;
+        private final int sizeX, sizeY, sizeZ;
+        private final int minChunkX, minChunkZ;
+        private final int chunksX, chunksZ;
+        private final ChunkSnapshot[] chunks;
+
+        private Region(World world, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+            this.world = world;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.sizeZ = sizeZ;
+            this.minChunkX = minX >> 4;
+            this.minChunkZ = minZ >> 4;
+            this.chunksX = ((minX + sizeX - 1) >> 4) - minChunkX + 1;
+            this.chunksZ = ((minZ + sizeZ - 1) >> 4) - minChunkZ + 1;
+            this.chunks = new ChunkSnapshot[chunksX * chunksZ];
+        }
+
+        /**
+         * Builds the flag grid. Thread-safe, intended to run asynchronously.
+         *
+         * @param materialFlags flag byte per Material ordinal
+         * @param countedFlag   flag that box counts are computed for
+         * @param columnFlag    flag that column heights are computed for
+         */
+        public CityBlockSnapshot build(byte[] materialFlags, byte countedFlag, byte columnFlag) {
+            return new CityBlockSnapshot(this, materialFlags, countedFlag, columnFlag);
+        }
+
+        public World getWorld() { return world; }
+    }
+}
@@ -0,0 +1,87 @@
+package de.tecca.endOverworld.world;
+
+import org.bukkit.Material;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What is known about End modifications on this server: End datapacks and non-vanilla materials,
+ * plus the material tables the post-processors use with them. Immutable - WorldManager builds it once
+ * and replaces it when the datapacks folder changes.
+ */
+public final class CompatibilityProfile {
+
+    private static final Material[] END_CITY_MATERIALS = {
+            Material.PURPUR_BLOCK, Material.PURPUR_PILLAR, Material.PURPUR_STAIRS, Material.PURPUR_SLAB,
+            Material.END_STONE_BRICKS, Material.END_STONE_BRICK_STAIRS, Material.END_STONE_BRICK_SLAB,
+            Material.END_STONE_BRICK_WALL, Material.END_ROD,
+            Material.MAGENTA_STAINED_GLASS, Material.MAGENTA_STAINED_GLASS_PANE
+    };
+
+    private static final Material[] FUNCTIONAL_MATERIALS = {
+            Material.CHEST, Material.ENDER_CHEST, Material.SPAWNER, Material.END_PORTAL, Material.END_PORTAL_FRAME
+    };
+
+    private final List<String> endDatapacks;
+    private final boolean customMaterials;
+    private final boolean conservativeCorruption;
+
+    // Indexed by Material ordinal
+    private final boolean[] cityMaterials;
+    private final boolean[] protectedMaterials;
+
+    /**
+     * @param endDatapacks          names of detected End modification datapacks
+     * @param customMaterials       whether non-vanilla materials are registered
+     * @param protectCustomTerrain  compatibility.protect-custom-terrain - corrupt only city blocks on modded terrain
+     */
+    public CompatibilityProfile(List<String> endDatapacks, boolean customMaterials, boolean protectCustomTerrain) {
+        this.endDatapacks = Collections.unmodifiableList(endDatapacks);
+        this.customMaterials = customMaterials;
+        this.conservativeCorruption = protectCustomTerrain && (customMaterials || !endDatapacks.isEmpty());
+
+        Material[] materials = Material.values();
+        this.cityMaterials = new boolean[materials.length];
+        this.protectedMaterials = new boolean[materials.length];
+
+        for (Material material : END_CITY_MATERIALS) {
+            cityMaterials[material.ordinal()] = true;
+        }
+        for (Material material : FUNCTIONAL_MATERIALS) {
+            protectedMaterials[material.ordinal()] = true;
+        }
+
+        // Blocks added by mods are left alone, their replacements are unknown
+        if (customMaterials) {
+            for (Material material : materials) {
+                if (!material.isLegacy() && !"minecraft".equals(material.getKey().getNamespace())) {
+                    protectedMaterials[material.ordinal()] = true;
+                }
+            }
+        }
+    }
+
+    public boolean hasCustomEndGeneration() {
+        return customMaterials || !endDatapacks.isEmpty();
+    }
+
+    public List<String> getEndDatapacks() { return endDatapacks; }
+    public boolean hasCustomMaterials() { return customMaterials; }
+
+    /**
+     * Whether corruption should stay on End City blocks instead of spreading to surrounding (possibly modded) terrain
+     */
+    public boolean isConservativeCorruption() { return conservativeCorruption; }
+
+    public boolean isCityMaterial(Material material) {
+        return cityMaterials[material.ordinal()];
+    }
+
+    /**
+     * Functional blocks and modded blocks, which are never corrupted
+     */
+    public boolean isProtected(Material material) {
+        return protectedMaterials[material.ordinal()];
+    }
+}
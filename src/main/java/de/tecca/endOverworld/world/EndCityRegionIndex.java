@@ -0,0 +1,273 @@
+package de.tecca.endOverworld.world;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bounding boxes of detected End Cities, bucketed by chunk so membership is a handful of AABB checks.
+ * Boxes are recorded by the structure detectors when they find a city. Overlapping and touching boxes are
+ * merged into their bounding box, so repeated detections around a city grow one box instead of piling up,
+ * and a world's boxes are dropped when it unloads. Positions that were checked and found outside any city
+ * are remembered per chunk for a few minutes, capped per chunk and in total, and forgotten early when the
+ * chunk unloads or city blocks are placed nearby.
+ * Not thread-safe - intended for use from the main thread.
+ */
+public class EndCityRegionIndex {
+
+    private final Map<UUID, Map<Long, List<Box>>> regions = new HashMap<>();
+    // Negative results by world and chunk: block key to expiry time, oldest first
+    private final Map<UUID, Map<Long, LinkedHashMap<Long, Long>>> knownOutside = new HashMap<>();
+    private int outsideCount;
+    private int regionCount;
+
+    private static final int MAX_OUTSIDE_PER_CHUNK = 64;
+    private static final int MAX_OUTSIDE_TOTAL = 4096;
+    private static final long OUTSIDE_TTL_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * Records an inclusive block box as part of an End City, merged with the boxes it overlaps or touches
+     */
+    public void record(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        UUID worldId = world.getUID();
+        Map<Long, List<Box>> chunks = regions.computeIfAbsent(worldId, id -> new HashMap<>());
+        Box box = new Box(minX, minY, minZ, maxX, maxY, maxZ);
+
+        // Skip boxes an existing region already covers
+        Box other = findTouching(chunks, box);
+        if (other != null && other.covers(box)) return;
+
+        // A grown box can reach further boxes, so merge until none is left
+        while (other != null) {
+            removeBox(chunks, other);
+            box = box.union(other);
+            other = findTouching(chunks, box);
+        }
+
+        for (int chunkX = box.minX >> 4; chunkX <= box.maxX >> 4; chunkX++) {
+            for (int chunkZ = box.minZ >> 4; chunkZ <= box.maxZ >> 4; chunkZ++) {
+                long chunkKey = ChunkBucketIndex.chunkKey(chunkX, chunkZ);
+                chunks.computeIfAbsent(chunkKey, key -> new ArrayList<>(1)).add(box);
+                forgetOutside(worldId, chunkKey);
+            }
+        }
+        regionCount++;
+    }
+
+    private static Box findTouching(Map<Long, List<Box>> chunks, Box box) {
+        // One block wider, so boxes across a chunk border that only touch are found too
+        for (int chunkX = (box.minX - 1) >> 4; chunkX <= (box.maxX + 1) >> 4; chunkX++) {
+            for (int chunkZ = (box.minZ - 1) >> 4; chunkZ <= (box.maxZ + 1) >> 4; chunkZ++) {
+                List<Box> boxes = chunks.get(ChunkBucketIndex.chunkKey(chunkX, chunkZ));
+                if (boxes == null) continue;
+
+                for (Box other : boxes) {
+                    if (other.touches(box)) return other;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void removeBox(Map<Long, List<Box>> chunks, Box box) {
+        for (int chunkX = box.minX >> 4; chunkX <= box.maxX >> 4; chunkX++) {
+            for (int chunkZ = box.minZ >> 4; chunkZ <= box.maxZ >> 4; chunkZ++) {
+                long chunkKey = ChunkBucketIndex.chunkKey(chunkX, chunkZ);
+                List<Box> boxes = chunks.get(chunkKey);
+                if (boxes != null && boxes.remove(box) && boxes.isEmpty()) chunks.remove(chunkKey);
+            }
+        }
+        regionCount--;
+    }
+
+    /**
+     * Records the bounding box of detected End City blocks, grown by a margin
+     */
+    public void recordBlocks(List<Location> blocks, int margin) {
+        if (blocks.isEmpty()) return;
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (Location block : blocks) {
+            minX = Math.min(minX, block.getBlockX());
+            minY = Math.min(minY, block.getBlockY());
+            minZ = Math.min(minZ, block.getBlockZ());
+            maxX = Math.max(maxX, block.getBlockX());
+            maxY = Math.max(maxY, block.getBlockY());
+            maxZ = Math.max(maxZ, block.getBlockZ());
+        }
+
+        record(blocks.get(0).getWorld(), minX - margin, minY - margin, minZ - margin,
+                maxX + margin, maxY + margin, maxZ + margin);
+    }
+
+    /**
+     * Records a box of the given half sizes around a location
+     */
+    public void recordAround(Location center, int horizontal, int vertical) {
+        int x = center.getBlockX(), y = center.getBlockY(), z = center.getBlockZ();
+        record(center.getWorld(), x - horizontal, y - vertical, z - horizontal,
+                x + horizontal, y + vertical, z + horizontal);
+    }
+
+    /**
+     * Checks whether a block position lies inside a recorded End City
+     */
+    public boolean contains(World world, int x, int y, int z) {
+        Map<Long, List<Box>> chunks = regions.get(world.getUID());
+        if (chunks == null) return false;
+
+        List<Box> boxes = chunks.get(ChunkBucketIndex.chunkKey(x >> 4, z >> 4));
+        if (boxes == null) return false;
+
+        for (Box box : boxes) {
+            if (box.contains(x, y, z)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers that a position was checked and is not part of any End City
+     */
+    public void markOutside(World world, int x, int y, int z) {
+        // It is only a cache, so hitting the total cap simply starts over
+        if (outsideCount >= MAX_OUTSIDE_TOTAL) {
+            knownOutside.clear();
+            outsideCount = 0;
+        }
+
+        LinkedHashMap<Long, Long> positions = knownOutside.computeIfAbsent(world.getUID(), id -> new HashMap<>())
+                .computeIfAbsent(ChunkBucketIndex.chunkKey(x >> 4, z >> 4), key -> new LinkedHashMap<>());
+
+        long blockKey = blockKey(x, y, z);
+        if (positions.remove(blockKey) != null) {
+            outsideCount--;
+        } else if (positions.size() >= MAX_OUTSIDE_PER_CHUNK) {
+            Iterator<Long> oldest = positions.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+            outsideCount--;
+        }
+
+        positions.put(blockKey, System.currentTimeMillis() + OUTSIDE_TTL_MILLIS);
+        outsideCount++;
+    }
+
+    public boolean isKnownOutside(World world, int x, int y, int z) {
+        Map<Long, LinkedHashMap<Long, Long>> chunks = knownOutside.get(world.getUID());
+        if (chunks == null) return false;
+
+        long chunkKey = ChunkBucketIndex.chunkKey(x >> 4, z >> 4);
+        LinkedHashMap<Long, Long> positions = chunks.get(chunkKey);
+        if (positions == null) return false;
+
+        Long expiresAt = positions.get(blockKey(x, y, z));
+        if (expiresAt == null) return false;
+
+        if (expiresAt < System.currentTimeMillis()) {
+            positions.remove(blockKey(x, y, z));
+            outsideCount--;
+            if (positions.isEmpty()) forgetOutside(world.getUID(), chunkKey);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drops the negative results of a chunk, e.g. when it unloads or city blocks were placed in it
+     */
+    public void forgetOutside(World world, int chunkX, int chunkZ) {
+        forgetOutside(world.getUID(), ChunkBucketIndex.chunkKey(chunkX, chunkZ));
+    }
+
+    private void forgetOutside(UUID worldId, long chunkKey) {
+        Map<Long, LinkedHashMap<Long, Long>> chunks = knownOutside.get(worldId);
+        if (chunks == null) return;
+
+        LinkedHashMap<Long, Long> positions = chunks.remove(chunkKey);
+        if (positions != null) outsideCount -= positions.size();
+        if (chunks.isEmpty()) knownOutside.remove(worldId);
+    }
+
+    /**
+     * Drops all regions and negative results of an unloading world
+     */
+    public void forgetWorld(World world) {
+        Map<Long, List<Box>> chunks = regions.remove(world.getUID());
+        if (chunks != null) {
+            // Boxes spanning several chunks are listed in each of them
+            Set<Box> boxes = new HashSet<>();
+            for (List<Box> chunkBoxes : chunks.values()) {
+                boxes.addAll(chunkBoxes);
+            }
+            regionCount -= boxes.size();
+        }
+
+        Map<Long, LinkedHashMap<Long, Long>> outside = knownOutside.remove(world.getUID());
+        if (outside != null) {
+            for (LinkedHashMap<Long, Long> positions : outside.values()) {
+                outsideCount -= positions.size();
+            }
+        }
+    }
+
+    private static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public int size() {
+        return regionCount;
+    }
+
+    public void clear() {
+        regions.clear();
+        knownOutside.clear();
+        outsideCount = 0;
+        regionCount = 0;
+    }
+
+    private static final class Box {
+        private final int minX, minY, minZ;
+        private final int maxX, maxY, maxZ;
+
+        private Box(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+
+        private boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+
+        private boolean covers(Box other) {
+            return other.minX >= minX && other.maxX <= maxX && other.minY >= minY && other.maxY <= maxY &&
+                    other.minZ >= minZ && other.maxZ <= maxZ;
+        }
+
+        /**
+         * Whether the boxes overlap or are directly adjacent
+         */
+        private boolean touches(Box other) {
+            return other.minX <= maxX + 1 && other.maxX >= minX - 1 && other.minY <= maxY + 1 &&
+                    other.maxY >= minY - 1 && other.minZ <= maxZ + 1 && other.maxZ >= minZ - 1;
+        }
+
+        private Box union(Box other) {
+            return new Box(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                    Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+        }
+    }
+}
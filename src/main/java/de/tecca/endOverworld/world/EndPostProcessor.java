@@ -27,6 +27,7 @@ public class EndPostProcessor implements Listener {
     private static final int END_CITY_MIN_BLOCKS = 20;
     private static final int CORRUPTION_RADIUS = 12; // Only corrupt within 12 blocks of End City
     private static final double CORRUPTION_CHANCE = 0.25; // 25% chance to corrupt valid blocks
+    private static final int CITY_MARGIN = 5; // Blocks around detected city blocks that count as inside
 
     public EndPostProcessor(EndOverworld plugin) {
         this.plugin = plugin;
@@ -38,7 +39,7 @@ public class EndPostProcessor implements Listener {
     @EventHandler
     public void onChunkPopulate(ChunkPopulateEvent event) {
         // Only process End chunks
-        if (event.getWorld().getEnvironment() != World.Environment.THE_END) return;
+        if (!plugin.getWorldManager().isEndWorld(event.getWorld())) return;
 
         org.bukkit.Chunk chunk = event.getChunk();
         String chunkKey = getChunkKey(chunk);
@@ -77,8 +78,13 @@ public class EndPostProcessor implements Listener {
             return;
         }
 
-        plugin.getLogger().info("Processing End City in chunk " + chunk.getX() + ", " + chunk.getZ() +
-                " with " + endCityBlocks.size() + " structure blocks");
+        if (plugin.getSettings().isLogStructureDetection()) {
+            plugin.getLogger().info("Processing End City in chunk " + chunk.getX() + ", " + chunk.getZ() +
+                    " with " + endCityBlocks.size() + " structure blocks");
+        }
+
+        // Remember the city bounds for chest-guard checks
+        plugin.getStructureManager().getRegionIndex().recordBlocks(endCityBlocks, CITY_MARGIN);
 
         // Apply targeted corruption around End City blocks
         applyTargetedCorruption(chunk, endCityBlocks);
@@ -121,7 +127,7 @@ public class EndPostProcessor implements Listener {
             corruptedBlocks += corruptAroundLocation(endCityBlock, CORRUPTION_RADIUS);
         }
 
-        if (corruptedBlocks > 0) {
+        if (corruptedBlocks > 0 && plugin.getSettings().isLogStructureDetection()) {
             plugin.getLogger().info("Applied " + corruptedBlocks + " corruptions to End City in chunk " +
                     chunk.getX() + ", " + chunk.getZ());
         }
@@ -168,14 +174,12 @@ public class EndPostProcessor implements Listener {
         // Don't corrupt air
         if (!material.isSolid()) return false;
 
-        // Don't corrupt important functional blocks
-        if (material == Material.CHEST ||
-                material == Material.ENDER_CHEST ||
-                material == Material.SPAWNER ||
-                material == Material.END_PORTAL ||
-                material == Material.END_PORTAL_FRAME) {
-            return false;
-        }
+        // Don't corrupt important functional blocks, or modded blocks
+        CompatibilityProfile profile = plugin.getWorldManager().getCompatibilityProfile();
+        if (profile.isProtected(material)) return false;
+
+        // With End modifications installed, leave the surrounding terrain alone
+        if (profile.isConservativeCorruption() && !profile.isCityMaterial(material)) return false;
 
         // Don't corrupt blocks that are already corrupted
         if (isAlreadyCorrupted(material)) return false;
@@ -248,17 +252,7 @@ public class EndPostProcessor implements Listener {
      * Check if material is End City related
      */
     private boolean isEndCityMaterial(Material material) {
-        return material == Material.PURPUR_BLOCK ||
-                material == Material.PURPUR_PILLAR ||
-                material == Material.PURPUR_STAIRS ||
-                material == Material.PURPUR_SLAB ||
-                material == Material.END_STONE_BRICKS ||
-                material == Material.END_STONE_BRICK_STAIRS ||
-                material == Material.END_STONE_BRICK_SLAB ||
-                material == Material.END_STONE_BRICK_WALL ||
-                material == Material.END_ROD ||
-                material == Material.MAGENTA_STAINED_GLASS ||
-                material == Material.MAGENTA_STAINED_GLASS_PANE;
+        return plugin.getWorldManager().getCompatibilityProfile().isCityMaterial(material);
     }
 
     /**
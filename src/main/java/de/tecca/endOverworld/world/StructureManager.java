@@ -1,22 +1,30 @@
 package de.tecca.endOverworld.world;
 
 import de.tecca.endOverworld.EndOverworld;
+import de.tecca.endOverworld.config.Settings;
 import de.tecca.endOverworld.entities.EndCityVillager;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Shulker;
+import org.bukkit.entity.Villager;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
 import org.bukkit.event.world.ChunkPopulateEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.UUID;
 
 /**
  * Manages End structures and spawns villagers in End cities
@@ -26,11 +34,29 @@ public class StructureManager implements Listener {
     private final EndOverworld plugin;
     private final Map<String, List<EndCityVillager>> endCityVillagers;
     private final Map<String, Boolean> processedChunks;
+    private final Map<UUID, EndCityVillager> villagersById;
+    private final ChunkBucketIndex<EndCityVillager> villagerIndex;
+    private final EndCityRegionIndex regionIndex = new EndCityRegionIndex();
+    private final VillagerLeashTask leashTask;
+    private BukkitTask leashTimer;
+
+    // Maintained incrementally for getStatistics()
+    private int populatedCities;
 
     public StructureManager(EndOverworld plugin) {
         this.plugin = plugin;
         this.endCityVillagers = new HashMap<>();
         this.processedChunks = new HashMap<>();
+        this.villagersById = new HashMap<>();
+        this.villagerIndex = new ChunkBucketIndex<>();
+        this.leashTask = new VillagerLeashTask(villagerIndex, plugin.getSettings().getVillagers());
+    }
+
+    /**
+     * Starts the leash scheduler, once the feature is registered
+     */
+    public void start() {
+        leashTimer = Bukkit.getScheduler().runTaskTimer(plugin, leashTask, 1L, 1L);
     }
 
     /**
@@ -41,11 +67,11 @@ public class StructureManager implements Listener {
         World world = event.getWorld();
 
         // Only process End chunks
-        if (world.getEnvironment() == World.Environment.THE_END) {
+        if (plugin.getWorldManager().isEndWorld(world)) {
             // Delay processing to allow structures to fully generate
             Bukkit.getScheduler().runTaskLater(plugin, () -> {
                 processEndChunk(event.getChunk());
-            }, 20L); // Wait 1 second
+            }, plugin.getSettings().getProcessingDelay());
         }
     }
 
@@ -104,23 +130,132 @@ public class StructureManager implements Listener {
     }
 
     private void processEndCityAtLocation(Location shulkerLocation) {
-        // Determine number of villagers to spawn (1-2 per End city/ship)
-        int villagerCount = 1 + (int)(Math.random() * 2);
+        // Shulkers sit inside city towers, so the space around them is city territory
+        regionIndex.recordAround(shulkerLocation, 16, 12);
 
-        // Create villagers near the Shulker location using EndCityVillager's method
-        List<EndCityVillager> villagers = EndCityVillager.createVillagersNear(plugin, shulkerLocation, villagerCount);
+        // Determine number of villagers to spawn (min-max per End city/ship)
+        Settings.Villagers villagerSettings = plugin.getSettings().getVillagers();
+        int villagerCount = villagerSettings.getMinVillagers() +
+                (int) (Math.random() * (villagerSettings.getMaxVillagers() - villagerSettings.getMinVillagers() + 1));
 
-        if (!villagers.isEmpty()) {
-            String locationKey = getLocationKey(shulkerLocation);
-            endCityVillagers.put(locationKey, villagers);
+        // Snapshot the city once and search for spawn spots off the main thread
+        EndCityVillager.createVillagersNearAsync(plugin, shulkerLocation, villagerCount, villagers -> {
+            if (!villagers.isEmpty()) {
+                String locationKey = getLocationKey(shulkerLocation);
+                for (EndCityVillager villager : villagers) {
+                    villager.assignCity(locationKey);
+                    registerVillager(locationKey, villager);
+                }
 
-            plugin.getLogger().info("Populated End city with " + villagers.size() +
-                    " villagers near Shulker at " + shulkerLocation);
-        } else {
-            plugin.getLogger().warning("Failed to spawn villagers near Shulker at " + shulkerLocation);
+                if (plugin.getSettings().isLogVillagerCreation()) {
+                    plugin.getLogger().info("Populated End city with " + villagers.size() +
+                            " villagers near Shulker at " + shulkerLocation);
+                }
+            } else {
+                plugin.getLogger().warning("Failed to spawn villagers near Shulker at " + shulkerLocation);
+            }
+        });
+    }
+
+    /**
+     * Re-attaches End City villagers whose entities were loaded from disk
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (!(entity instanceof Villager)) continue;
+
+            EndCityVillager villager = EndCityVillager.attach(plugin, (Villager) entity);
+            if (villager != null) {
+                registerVillager(getCityKey(villager), villager);
+            }
         }
     }
 
+    /**
+     * Detaches End City villagers whose entities are being unloaded
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Villager) {
+                unregisterVillager(entity.getUniqueId());
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVillagerDeath(EntityDeathEvent event) {
+        if (event.getEntity() instanceof Villager) {
+            unregisterVillager(event.getEntity().getUniqueId());
+        }
+    }
+
+    /**
+     * Unregisters villagers that despawn or are otherwise removed from the world
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVillagerRemove(EntityRemoveEvent event) {
+        if (event.getEntity() instanceof Villager) {
+            unregisterVillager(event.getEntity().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onVillagerTeleport(EntityTeleportEvent event) {
+        if (event.getTo() == null || !(event.getEntity() instanceof Villager)) return;
+
+        EndCityVillager villager = villagersById.get(event.getEntity().getUniqueId());
+        if (villager != null) {
+            villagerIndex.update(villager, event.getTo());
+        }
+    }
+
+    /**
+     * Attaches villagers in chunks that were already loaded before the listener was registered
+     */
+    public void attachLoadedVillagers() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Villager entity : world.getEntitiesByClass(Villager.class)) {
+                EndCityVillager villager = EndCityVillager.attach(plugin, entity);
+                if (villager != null) {
+                    registerVillager(getCityKey(villager), villager);
+                }
+            }
+        }
+    }
+
+    private void registerVillager(String cityKey, EndCityVillager villager) {
+        // Replace any stale wrapper of the same entity
+        unregisterVillager(villager.getVillager().getUniqueId());
+
+        List<EndCityVillager> villagers = endCityVillagers.computeIfAbsent(cityKey, key -> new ArrayList<>());
+        if (villagers.isEmpty()) populatedCities++;
+        villagers.add(villager);
+
+        villagersById.put(villager.getVillager().getUniqueId(), villager);
+        villagerIndex.update(villager, villager.getVillager().getLocation());
+        leashTask.add(villager);
+    }
+
+    private void unregisterVillager(UUID entityId) {
+        EndCityVillager villager = villagersById.remove(entityId);
+        if (villager == null) return;
+
+        villagerIndex.remove(villager);
+        leashTask.remove(villager);
+
+        List<EndCityVillager> villagers = endCityVillagers.get(getCityKey(villager));
+        if (villagers != null && villagers.remove(villager) && villagers.isEmpty()) {
+            populatedCities--;
+        }
+    }
+
+    private String getCityKey(EndCityVillager villager) {
+        return villager.getCityKey() != null ?
+                villager.getCityKey() : getLocationKey(villager.getSpawnLocation());
+    }
+
     private String getChunkKey(org.bukkit.Chunk chunk) {
         return chunk.getWorld().getName() + "_" + chunk.getX() + "_" + chunk.getZ();
     }
@@ -151,7 +286,10 @@ public class StructureManager implements Listener {
 
         if (!villagers.isEmpty()) {
             String locationKey = getLocationKey(location);
-            endCityVillagers.put(locationKey, villagers);
+            for (EndCityVillager villager : villagers) {
+                villager.assignCity(locationKey);
+                registerVillager(locationKey, villager);
+            }
             plugin.getLogger().info("Manually spawned " + villagers.size() + " villagers at " + location);
         } else {
             plugin.getLogger().warning("Failed to manually spawn villagers at " + location);
@@ -160,15 +298,16 @@ public class StructureManager implements Listener {
         return villagers;
     }
 
+    /**
+     * Gets the recorded End City bounds
+     */
+    public EndCityRegionIndex getRegionIndex() { return regionIndex; }
+
     /**
      * Gets all End city villagers
      */
     public List<EndCityVillager> getAllEndCityVillagers() {
-        List<EndCityVillager> allVillagers = new ArrayList<>();
-        for (List<EndCityVillager> villagerList : endCityVillagers.values()) {
-            allVillagers.addAll(villagerList);
-        }
-        return allVillagers;
+        return new ArrayList<>(villagersById.values());
     }
 
     /**
@@ -176,13 +315,17 @@ public class StructureManager implements Listener {
      */
     public List<EndCityVillager> getVillagersNear(Location location, double radius) {
         List<EndCityVillager> nearbyVillagers = new ArrayList<>();
+        double radiusSquared = radius * radius;
 
-        for (EndCityVillager villager : getAllEndCityVillagers()) {
+        // Buckets are refreshed on teleports and by the leash task, so search as far as a villager can
+        // have walked since, then check the live location
+        double padding = leashTask.getMaxBucketDrift();
+        villagerIndex.forEachNear(location.getWorld(), location.getX(), location.getZ(), radius + padding, villager -> {
             if (villager.isValid() &&
-                    villager.getVillager().getLocation().distance(location) <= radius) {
+                    villager.getVillager().getLocation().distanceSquared(location) <= radiusSquared) {
                 nearbyVillagers.add(villager);
             }
-        }
+        });
 
         return nearbyVillagers;
     }
@@ -193,13 +336,12 @@ public class StructureManager implements Listener {
     public void returnWanderingVillagers() {
         int returnedCount = 0;
 
-        for (EndCityVillager villager : getAllEndCityVillagers()) {
-            if (villager.isValid()) {
-                double distance = villager.getVillager().getLocation().distance(villager.getSpawnLocation());
-                if (distance > 15) { // Use same threshold as EndCityVillager.returnToSpawn()
-                    villager.returnToSpawn();
-                    returnedCount++;
-                }
+        double maxDistanceSquared = leashTask.getMaxDistanceSquared();
+
+        for (EndCityVillager villager : villagersById.values()) {
+            if (villager.returnToSpawn(maxDistanceSquared)) {
+                villagerIndex.update(villager, villager.getSpawnLocation());
+                returnedCount++;
             }
         }
 
@@ -212,23 +354,17 @@ public class StructureManager implements Listener {
      * Cleanup invalid villagers
      */
     public void cleanup() {
-        AtomicInteger removedCount = new AtomicInteger();
-
-        for (Map.Entry<String, List<EndCityVillager>> entry : endCityVillagers.entrySet()) {
-            List<EndCityVillager> villagers = entry.getValue();
-            villagers.removeIf(villager -> {
-                if (!villager.isValid()) {
-                    removedCount.getAndIncrement();
-                    return true;
-                }
-                return false;
-            });
-        }
+        List<UUID> invalid = new ArrayList<>();
+        villagersById.forEach((id, villager) -> {
+            if (!villager.isValid()) invalid.add(id);
+        });
+        invalid.forEach(this::unregisterVillager);
+        int removedCount = invalid.size();
 
         // Remove empty entries
         endCityVillagers.entrySet().removeIf(entry -> entry.getValue().isEmpty());
 
-        if (removedCount.get() > 0) {
+        if (removedCount > 0) {
             plugin.getLogger().info("Cleaned up " + removedCount + " invalid villagers");
         }
     }
@@ -239,31 +375,30 @@ public class StructureManager implements Listener {
     public Map<String, Integer> getStatistics() {
         Map<String, Integer> stats = new HashMap<>();
 
-        int totalVillagers = 0;
-        int validVillagers = 0;
-        int endCities = 0;
-
-        for (List<EndCityVillager> villagers : endCityVillagers.values()) {
-            if (!villagers.isEmpty()) {
-                endCities++;
-                totalVillagers += villagers.size();
-
-                for (EndCityVillager villager : villagers) {
-                    if (villager.isValid()) {
-                        validVillagers++;
-                    }
-                }
-            }
-        }
-
-        stats.put("total_villagers", totalVillagers);
-        stats.put("valid_villagers", validVillagers);
-        stats.put("end_cities", endCities);
+        // Dead, removed and unloaded villagers are unregistered by events, so the tracked set is the valid set
+        stats.put("total_villagers", villagersById.size());
+        stats.put("valid_villagers", villagersById.size());
+        stats.put("end_cities", populatedCities);
         stats.put("processed_chunks", processedChunks.size());
 
         return stats;
     }
 
+    /**
+     * Applies the villager leash settings of the current settings
+     */
+    public void reloadSettings() {
+        leashTask.reloadSettings(plugin.getSettings().getVillagers());
+    }
+
+    /**
+     * Stops the leash scheduler (for plugin disable)
+     */
+    public void shutdown() {
+        if (leashTimer != null) leashTimer.cancel();
+        leashTask.clear();
+    }
+
     /**
      * Forces a recheck of a specific chunk
      */
@@ -0,0 +1,138 @@
+package de.tecca.endOverworld.world;
+
+import de.tecca.endOverworld.config.Settings;
+import de.tecca.endOverworld.entities.EndCityVillager;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps End City villagers near their spawn by checking a fixed slice of them each tick.
+ * A sweep over all villagers starts at most once per return-check-interval. Independently, a second
+ * cursor refreshes the index buckets of the same number of villagers every tick. Both slices are
+ * return-checks-per-tick, so the cost per tick stays bounded no matter how many villagers exist;
+ * instead the bucket refresh cycle grows with the roster, see {@link #getMaxBucketDrift()}.
+ */
+class VillagerLeashTask implements Runnable {
+
+    private final ChunkBucketIndex<EndCityVillager> villagerIndex;
+    private final List<EndCityVillager> roster = new ArrayList<>();
+    private final Map<EndCityVillager, Integer> rosterSlots = new IdentityHashMap<>();
+    private final Location scratch = new Location(null, 0, 0, 0);
+
+    // Villagers walk well under this many blocks per tick
+    private static final double MAX_VILLAGER_SPEED = 0.4;
+    private int refreshCursor;
+
+    // Cached configuration
+    private double maxDistanceSquared;
+    private int checksPerTick;
+    private long sweepInterval;
+
+    private int cursor;
+    private long tick;
+    private long sweepStartTick = Long.MIN_VALUE / 2;
+
+    VillagerLeashTask(ChunkBucketIndex<EndCityVillager> villagerIndex, Settings.Villagers settings) {
+        this.villagerIndex = villagerIndex;
+        reloadSettings(settings);
+    }
+
+    void reloadSettings(Settings.Villagers settings) {
+        double maxDistance = settings.getMaxWanderDistance();
+        this.maxDistanceSquared = maxDistance * maxDistance;
+        this.checksPerTick = settings.getReturnChecksPerTick();
+        this.sweepInterval = settings.getReturnCheckInterval();
+    }
+
+    void add(EndCityVillager villager) {
+        if (rosterSlots.containsKey(villager)) return;
+        rosterSlots.put(villager, roster.size());
+        roster.add(villager);
+    }
+
+    void remove(EndCityVillager villager) {
+        Integer slot = rosterSlots.remove(villager);
+        if (slot == null) return;
+
+        // Swap-remove keeps removal O(1); the moved villager may be skipped for one sweep
+        EndCityVillager last = roster.remove(roster.size() - 1);
+        if (last != villager) {
+            roster.set(slot, last);
+            rosterSlots.put(last, slot);
+        }
+    }
+
+    void clear() {
+        roster.clear();
+        rosterSlots.clear();
+        cursor = 0;
+        refreshCursor = 0;
+    }
+
+    double getMaxDistanceSquared() {
+        return maxDistanceSquared;
+    }
+
+    /**
+     * Gets how far a walking villager can be from its index bucket: the distance it covers in two
+     * refresh cycles, as a swap-remove can delay its refresh by one cycle. Queries pad their radius by this.
+     */
+    double getMaxBucketDrift() {
+        int cycleTicks = Math.max(1, (roster.size() + checksPerTick - 1) / checksPerTick);
+        return MAX_VILLAGER_SPEED * 2 * cycleTicks;
+    }
+
+    @Override
+    public void run() {
+        tick++;
+        refreshBuckets();
+
+        if (cursor == 0) {
+            if (roster.isEmpty() || tick - sweepStartTick < sweepInterval) return;
+            sweepStartTick = tick;
+        }
+
+        int end = Math.min(cursor + checksPerTick, roster.size());
+        while (cursor < end) {
+            check(roster.get(cursor++));
+        }
+
+        if (cursor >= roster.size()) {
+            cursor = 0;
+        }
+    }
+
+    private void refreshBuckets() {
+        if (roster.isEmpty()) return;
+
+        int count = Math.min(checksPerTick, roster.size());
+        for (int i = 0; i < count; i++) {
+            if (refreshCursor >= roster.size()) refreshCursor = 0;
+
+            EndCityVillager villager = roster.get(refreshCursor++);
+            if (villager.isValid()) {
+                villager.getVillager().getLocation(scratch);
+                villagerIndex.update(villager, scratch);
+            }
+        }
+    }
+
+    private void check(EndCityVillager villager) {
+        if (!villager.isValid()) return;
+
+        Location spawn = villager.getSpawnLocation();
+        World world = spawn.getWorld();
+        if (world == null || !world.isChunkLoaded(spawn.getBlockX() >> 4, spawn.getBlockZ() >> 4)) return;
+
+        villager.getVillager().getLocation(scratch);
+
+        if (villager.returnToSpawn(scratch, maxDistanceSquared)) {
+            villagerIndex.update(villager, spawn);
+        }
+    }
+}